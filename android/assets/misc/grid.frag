@@ -0,0 +1,24 @@
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+uniform sampler2D u_texture;
+uniform vec4 u_bonusColors[4];
+
+varying vec2 v_texCoord;
+varying vec2 v_local;
+varying float v_alpha;
+varying float v_bonus;
+
+void main() {
+    if (v_alpha <= 0.0) discard;
+    vec4 color = texture2D(u_texture, v_texCoord);
+    //the bonus mark covers the center third of the jewel
+    if (v_bonus > 0.5 && abs(v_local.x) < 1.0 / 3.0 && abs(v_local.y) < 1.0 / 3.0) {
+        int bonus = int(v_bonus + 0.5);
+        if (bonus == 1) color = u_bonusColors[1];
+        else if (bonus == 2) color = u_bonusColors[2];
+        else color = u_bonusColors[3];
+    }
+    gl_FragColor = vec4(color.rgb, color.a * v_alpha);
+}
@@ -0,0 +1,28 @@
+uniform mat4 u_projTrans;
+uniform float u_half;
+//region of the first jewel, the others follow it every u_typeStep
+uniform vec4 u_region;
+uniform float u_typeStep;
+
+attribute vec2 a_center;
+attribute vec2 a_corner;
+attribute float a_scale;
+attribute float a_alpha;
+attribute float a_type;
+attribute float a_bonus;
+
+varying vec2 v_texCoord;
+varying vec2 v_local;
+varying float v_alpha;
+varying float v_bonus;
+
+void main() {
+    vec2 position = a_center + a_corner * u_half * a_scale;
+    gl_Position = u_projTrans * vec4(position, 0.0, 1.0);
+    vec2 t = a_corner * 0.5 + 0.5;
+    float u = u_region.x + (a_type - 1.0) * u_typeStep;
+    v_texCoord = vec2(u + t.x * (u_region.z - u_region.x), mix(u_region.w, u_region.y, t.y));
+    v_local = a_corner;
+    v_alpha = a_type > 0.5 ? a_alpha : 0.0;
+    v_bonus = a_bonus;
+}
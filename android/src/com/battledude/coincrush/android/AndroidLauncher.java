@@ -1,17 +1,34 @@
 package com.battledude.coincrush.android;
 
 import android.os.Bundle;
+import android.os.Debug;
 
 import com.badlogic.gdx.backends.android.AndroidApplication;
 import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
 import MainGame.MainGame;
 
+import configuration.Configuration;
+import helpers.AllocationCounter;
+
 public class AndroidLauncher extends AndroidApplication {
 	@Override
 	protected void onCreate (Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
 		AndroidApplicationConfiguration config = new AndroidApplicationConfiguration();
 		config.useImmersiveMode = true;
+		if (Configuration.FPS_COUNTER) countAllocations();
 		initialize(new MainGame(), config);
 	}
+
+	//the runtime counts the bytes allocated by each thread once counting is started
+	@SuppressWarnings("deprecation")
+	private void countAllocations() {
+		Debug.startAllocCounting();
+		AllocationCounter.setSource(new AllocationCounter.Source() {
+			@Override
+			public long allocatedBytes() {
+				return Debug.getThreadAllocSize();
+			}
+		});
+	}
 }
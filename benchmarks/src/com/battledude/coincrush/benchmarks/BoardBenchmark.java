@@ -0,0 +1,97 @@
+package com.battledude.coincrush.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import gamecontrol.BoardModel;
+import gamecontrol.Matches;
+import gamecontrol.Moves;
+
+/**
+ * Read-only board queries and board generation. Board.check(), solutions() and generate()
+ * delegate to BoardModel, which is what is measured here since Board itself needs GL.
+ * size is used for both NUM_OF_SQUARES_X and NUM_OF_SQUARES_Y.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"5", "7", "9", "16", "32"})
+    public int size;
+
+    @Param({"4", "6", "8"})
+    public int types;
+
+    private BoardModel model;
+    private int swapX, swapY;
+
+    @Setup
+    public void setup() {
+        model = new BoardModel(size, size, types, 0.05f);
+        model.setRandom(new RandomXS128(42));
+        //a settled board with at least one move, like the game starts with
+        model.generate(false);
+        swapX = model.solutions().x(0);
+        swapY = model.solutions().y(0);
+    }
+
+    @Benchmark
+    public Matches check() {
+        return model.check();
+    }
+
+    @Benchmark
+    public boolean hasMatch() {
+        return model.hasMatch();
+    }
+
+    @Benchmark
+    public Moves solutions() {
+        return model.solutions();
+    }
+
+    /**
+     * Deadlock check right after a swap, with the move index dirty around the swapped cells.
+     */
+    @Benchmark
+    public boolean hasMovesAfterSwap() {
+        model.swap(swapX, swapY, swapX + 1 < size ? swapX + 1 : swapX - 1, swapY);
+        model.swap(swapX, swapY, swapX + 1 < size ? swapX + 1 : swapX - 1, swapY);
+        return model.hasMoves();
+    }
+
+    /**
+     * Generation as the game does it with Settings.RANDOM_BOARD.
+     */
+    @Benchmark
+    public BoardModel generate() {
+        model.generate(true);
+        return model;
+    }
+
+    /**
+     * Generation without matches, every cell avoids the types that would complete a run.
+     */
+    @Benchmark
+    public BoardModel generateWithoutMatches() {
+        model.generate(false);
+        return model;
+    }
+}
@@ -0,0 +1,97 @@
+package com.battledude.coincrush.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import gamecontrol.BoardModel;
+import gamecontrol.Moves;
+
+/**
+ * Gravity, refill and bonus resolvers as used by the cascade in Board.controlBucle() and
+ * refreshCR(). Every benchmark refills the holes it makes so the board stays full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CascadeBenchmark {
+
+    @Param({"5", "7", "9", "16", "32"})
+    public int size;
+
+    //types counts EMPTY, with 4 (3 jewels) the move() cascade of the 32x32 board never settles
+    @Param({"5", "6", "8"})
+    public int types;
+
+    private BoardModel model;
+
+    @Setup
+    public void setup() {
+        model = new BoardModel(size, size, types, 0.05f);
+        model.setRandom(new RandomXS128(42));
+        //a settled board with at least one move, like the game starts with
+        model.generate(false);
+    }
+
+    /**
+     * One hole per column at a different height, then the gravity pass and the refill.
+     */
+    @Benchmark
+    public int gravityAndRefill() {
+        for (int x = 0; x < size; x++) {
+            model.clear(x, (x * 3) % size);
+        }
+        return model.applyGravity() + model.refill();
+    }
+
+    @Benchmark
+    public int clearLine() {
+        model.clearLine(size / 2, size / 2, true);
+        model.clearLine(size / 2, size / 2, false);
+        return model.applyGravity() + model.refill();
+    }
+
+    @Benchmark
+    public int clearBomb() {
+        model.clearBomb(size / 2, size / 2);
+        return model.applyGravity() + model.refill();
+    }
+
+    @Benchmark
+    public int clearType() {
+        model.clearType(1 + (size % (types - 1)));
+        return model.applyGravity() + model.refill();
+    }
+
+    /**
+     * A full player move: a valid swap and the whole cascade until the board settles.
+     */
+    @Benchmark
+    public int move() {
+        //a new board can come out without moves too, it is refilled until one has a move
+        while (model.solutions().size() == 0) {
+            model.clearAll();
+            model.refill();
+            model.resolve();
+        }
+        Moves sols = model.solutions();
+        int x = sols.x(0), y = sols.y(0), d = sols.direction(0);
+        model.swap(x, y, Moves.toX(x, d), Moves.toY(y, d));
+        return model.resolve();
+    }
+}
@@ -12,12 +12,12 @@ public class MainGame extends Game {
 	public int score = 0;
 
 	public MainGame() {
-
-		Assets.load();
 	}
 
 	@Override
 	public void create() {
+		//Gdx.files is only available from here, Assets.load() checks for the packed atlases
+		Assets.load();
 		Tween.setCombinedAttributesLimit(10);
 		setScreen(new LoadingScreen(this));
 	}
@@ -10,6 +10,17 @@ public class Configuration {
     public static final boolean FPS_COUNTER = false;
     public static boolean DEBUG = false;
     public static boolean AUTOSOLVE = false;
+    //thinking time of the AUTOSOLVE bot for every move
+    public static float SOLVER_BUDGET_MS = 5;
+    //soak runs: game speed and logic only mode (no rendering, no waiting for animations)
+    public static float TIME_SCALE = 1;
+    public static boolean LOGIC_ONLY = false;
+    //seed of the game session, 0 picks a new one every game. It is logged to reproduce games
+    public static long SEED = 0;
+    //jewels drawn from one vertex buffer with a shader instead of one sprite per square
+    public static boolean GRID_RENDERER = true;
+    //background, board and backs kept in a frame buffer and redrawn only when they change
+    public static boolean LAYER_CACHE = true;
 
     public static final Color FPS_COUNTER_COLOR = FlatColors.BLACK;
 
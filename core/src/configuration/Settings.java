@@ -11,11 +11,30 @@ public class Settings {
 
     public static int NUM_OF_TYPES = 6;
     public static int BOARD_MARGIN = 55;
-    public static int SQUARE_SIZE = 120;
+    public static final int DEFAULT_SQUARE_SIZE = 120;
+    public static int SQUARE_SIZE = DEFAULT_SQUARE_SIZE;
     public static int SPACE_BETWEEN_SQUARES = 10;
 
     public static float BONUS_PROB = 0.05f;
 
+    //MARATHON boards, squares shrink so the board still fits the screen down to
+    //MIN_SQUARE_SIZE, bigger boards overflow it and the camera scrolls over them
+    public static final int[] BOARD_SIZES = {7, 20, 32};
+    public static final int MIN_SQUARE_SIZE = 40;
+
+    /**
+     * Largest square size between MIN_SQUARE_SIZE and DEFAULT_SQUARE_SIZE that fits the board
+     * in width x height.
+     */
+    public static void fitSquareSize(float width, float height) {
+        float fitX = (width - BOARD_MARGIN * 2 - SPACE_BETWEEN_SQUARES * (NUM_OF_SQUARES_X + 1))
+                / NUM_OF_SQUARES_X;
+        float fitY = (height - BOARD_MARGIN * 2 - SPACE_BETWEEN_SQUARES * (NUM_OF_SQUARES_Y + 1)
+                - TIMER_HEIGHT * 2) / NUM_OF_SQUARES_Y;
+        SQUARE_SIZE = Math.max(MIN_SQUARE_SIZE,
+                               (int) Math.min(DEFAULT_SQUARE_SIZE, Math.min(fitX, fitY)));
+    }
+
     //TIMER
     public static final float TIMER_HEIGHT = 160;
     public static final float TIMER_PAD = 20 ;
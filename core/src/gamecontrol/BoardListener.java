@@ -0,0 +1,27 @@
+package gamecontrol;
+
+/**
+ * Events fired by {@link BoardModel} so a view can follow the logic board.
+ */
+public interface BoardListener {
+
+    /**
+     * A jewel was removed, the cell is EMPTY from now on.
+     */
+    void onClear(int x, int y);
+
+    /**
+     * A bonus jewel in a match went off, fired before the cells it clears.
+     */
+    void onBonus(int x, int y, int bonus, boolean horizontal);
+
+    /**
+     * A jewel fell from (x, fromY) to (x, toY).
+     */
+    void onFall(int x, int fromY, int toY);
+
+    /**
+     * A new jewel was generated in an EMPTY cell.
+     */
+    void onSpawn(int x, int y);
+}
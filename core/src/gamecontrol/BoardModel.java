@@ -0,0 +1,427 @@
+package gamecontrol;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Random;
+
+import helpers.GameRandom;
+
+/**
+ * Headless board with all the game rules: swap, match, clear, gravity, refill and bonus
+ * resolution. Cells are plain bytes (type 0 is EMPTY, bonus 0 is NORMAL), nothing here needs
+ * a GL context, and views follow the board through a {@link BoardListener}.
+ */
+public class BoardModel {
+
+    public static final int EMPTY = MatchEngine.EMPTY;
+    public static final int NORMAL = 0, RAY = 1, BOMB = 2, BITCOIN = 3;
+
+    private final int width, height, numTypes;
+    private final float bonusProb;
+    //a ray clears a whole line, so on boards longer than BONUS_LINE bonuses spawn less and a
+    //refill sets off about as many cleared jewels as on the 7x7 board. With bonusProb at every
+    //size the cascades of 48x48 and bigger boards never settle
+    private static final int BONUS_LINE = 7;
+    private final float spawnBonusProb;
+    private final byte[] bonuses;
+    private final MatchEngine engine;
+    private final MoveIndex moves;
+    private Random random = MathUtils.random;
+    private BoardListener listener;
+    private int cleared;
+
+    //ZOBRIST HASH, one key per cell and type and per cell and bonus. Keys come from a fixed
+    //seed so equal boards of the same size hash the same in every model
+    private static final long ZOBRIST_SEED = 0x5EED0B0A4DL;
+    private static final int BONUS_KINDS = 4;
+    private final long[] typeKeys, bonusKeys;
+    private long hash;
+
+    //MATCHES AND SOLUTIONS, views reused by every call
+    private final Matches matches = new Matches();
+    private final Moves solutions = new Moves();
+    private final IntArray runs = new IntArray();
+
+    public BoardModel(int width, int height, int numTypes, float bonusProb) {
+        this.width = width;
+        this.height = height;
+        this.numTypes = numTypes;
+        this.bonusProb = bonusProb;
+        spawnBonusProb = bonusProb * Math.min(1f, (float) BONUS_LINE / Math.max(width, height));
+        bonuses = new byte[width * height];
+        engine = new MatchEngine(width, height, numTypes);
+        moves = new MoveIndex(engine);
+
+        //EMPTY and NORMAL keep a 0 key, so the empty board hashes to 0
+        GameRandom keys = new GameRandom(ZOBRIST_SEED);
+        typeKeys = new long[width * height * (numTypes + 1)];
+        bonusKeys = new long[width * height * BONUS_KINDS];
+        for (int cell = 0; cell < width * height; cell++) {
+            for (int t = 1; t <= numTypes; t++) {
+                typeKeys[cell * (numTypes + 1) + t] = keys.nextLong();
+            }
+            for (int b = 1; b < BONUS_KINDS; b++) {
+                bonusKeys[cell * BONUS_KINDS + b] = keys.nextLong();
+            }
+        }
+    }
+
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumTypes() {
+        return numTypes;
+    }
+
+    /**
+     * Bonus probability of the rules, the one the replays record. Bonuses spawn with it on
+     * boards up to 7 long and proportionally less on longer ones.
+     */
+    public float getBonusProb() {
+        return bonusProb;
+    }
+
+    /**
+     * Total number of jewels removed by matches and bonuses.
+     */
+    public int getCleared() {
+        return cleared;
+    }
+
+    public int getType(int x, int y) {
+        return engine.get(x, y);
+    }
+
+    public int getBonus(int x, int y) {
+        return bonuses[x * height + y];
+    }
+
+    public boolean isEmpty(int x, int y) {
+        return engine.get(x, y) == EMPTY;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public void set(int x, int y, int type, int bonus) {
+        int cell = x * height + y;
+        hash ^= typeKeys[cell * (numTypes + 1) + engine.get(x, y)]
+                ^ typeKeys[cell * (numTypes + 1) + type]
+                ^ bonusKeys[cell * BONUS_KINDS + bonuses[cell]]
+                ^ bonusKeys[cell * BONUS_KINDS + bonus];
+        if (engine.set(x, y, type)) moves.cellChanged(x, y);
+        bonuses[cell] = (byte) bonus;
+    }
+
+    /**
+     * 64 bit Zobrist hash of the types and bonuses, kept up to date by every cell change.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    //GENERATION
+    /**
+     * Fills the board with random jewels. Unless matches are allowed no jewel is placed where
+     * it would complete a match, and the board is filled again until it has a valid move.
+     * Starts a new game, the cleared count goes back to 0.
+     */
+    public void generate(boolean allowMatches) {
+        cleared = 0;
+        do {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    set(x, y, allowMatches ? randomType() : safeType(x, y), randomBonus());
+                }
+            }
+        } while (!allowMatches && !moves.hasMoves());
+    }
+
+    //random type that does not make a run of three with the cells on the left or above,
+    //the only ones set so far while generating
+    private int safeType(int x, int y) {
+        int left = x >= 2 && getType(x - 1, y) == getType(x - 2, y) ? getType(x - 1, y) : EMPTY;
+        int up = y >= 2 && getType(x, y - 1) == getType(x, y - 2) ? getType(x, y - 1) : EMPTY;
+        if (up == left) up = EMPTY;
+        int low = Math.min(left, up), high = Math.max(left, up);
+        int choices = numTypes - 1 - (low != EMPTY ? 1 : 0) - (high != EMPTY ? 1 : 0);
+        if (choices <= 0) return randomType();
+        //skips the banned types in ascending order
+        int type = 1 + random.nextInt(choices);
+        if (low != EMPTY && type >= low) type++;
+        if (high != EMPTY && type >= high) type++;
+        return type;
+    }
+
+    private int randomType() {
+        return 1 + random.nextInt(numTypes - 1);
+    }
+
+    private int randomBonus() {
+        if (random.nextFloat() < spawnBonusProb) return 1 + random.nextInt(2);
+        return NORMAL;
+    }
+
+    //MOVES
+    public void swap(int x1, int y1, int x2, int y2) {
+        int type = getType(x1, y1), bonus = getBonus(x1, y1);
+        set(x1, y1, getType(x2, y2), getBonus(x2, y2));
+        set(x2, y2, type, bonus);
+    }
+
+    /**
+     * Swaps two cells and keeps the swap only if it makes a match.
+     */
+    public boolean trySwap(int x1, int y1, int x2, int y2) {
+        swap(x1, y1, x2, y2);
+        if (hasMatch()) return true;
+        swap(x1, y1, x2, y2);
+        return false;
+    }
+
+    public boolean hasMatch() {
+        return engine.hasMatch();
+    }
+
+    /**
+     * Deadlock check, true while there is a match on the board or a swap that makes one.
+     */
+    public boolean hasMoves() {
+        return engine.hasMatch() || moves.hasMoves();
+    }
+
+    /**
+     * Every run of three or more on the board. The view is reused by the next call.
+     */
+    public Matches check() {
+        matches.clear();
+        runs.clear();
+        engine.findRuns(runs);
+        for (int r = 0; r < runs.size; r += 4) {
+            matches.add(runs.get(r), runs.get(r + 1), runs.get(r + 2), runs.get(r + 3) == 1);
+        }
+        return matches;
+    }
+
+    /**
+     * Every swap that makes a match, empty when the board already has one or is deadlocked.
+     * The view is reused by the next call.
+     */
+    public Moves solutions() {
+        solutions.clear();
+        if (hasMatch() || !moves.hasMoves()) return solutions;
+
+        for (int x = 0; x < width; ++x) {
+            for (int y = 0; y < height; ++y) {
+                // Swap with the one above
+                if (y > 0 && moves.verticalMove(x, y - 1)) {
+                    solutions.add(x, y, 0);
+                }
+                // Swap with the one below
+                if (y < height - 1 && moves.verticalMove(x, y)) {
+                    solutions.add(x, y, 2);
+                }
+                // Swap with the one on the left
+                if (x > 0 && moves.horizontalMove(x - 1, y)) {
+                    solutions.add(x, y, 1);
+                }
+                // Swap with the one on the right
+                if (x < width - 1 && moves.horizontalMove(x, y)) {
+                    solutions.add(x, y, 3);
+                }
+            }
+        }
+        return solutions;
+    }
+
+    //CLEARING
+    /**
+     * Removes every match on the board, setting off the bonuses inside them.
+     * Returns the number of jewels removed.
+     */
+    public int clearMatches() {
+        int before = cleared;
+        Matches matches = check();
+        for (int m = 0; m < matches.size(); m++) {
+            boolean hasBonus = matchHasBonus(matches, m);
+            boolean horizontal = matches.isHorizontal(m);
+            for (int i = 0; i < matches.length(m); i++) {
+                int x = matches.x(m, i), y = matches.y(m, i);
+                if (hasBonus) resolveBonus(x, y, horizontal);
+                else clear(x, y);
+            }
+        }
+        return cleared - before;
+    }
+
+    /**
+     * Clears a cell, setting off its bonus first if it has one.
+     */
+    public void resolveBonus(int x, int y, boolean horizontal) {
+        int bonus = getBonus(x, y);
+        if (bonus != NORMAL && listener != null) listener.onBonus(x, y, bonus, horizontal);
+        switch (bonus) {
+            case BITCOIN:
+                clearType(getType(x, y));
+                break;
+            case RAY:
+                clearLine(x, y, horizontal);
+                break;
+            case BOMB:
+                clearBomb(x, y);
+                break;
+            default:
+                clear(x, y);
+                break;
+        }
+    }
+
+    public void clear(int x, int y) {
+        if (isEmpty(x, y)) return;
+        //the bonus stays on the empty cell until it is refilled
+        set(x, y, EMPTY, getBonus(x, y));
+        cleared++;
+        if (listener != null) listener.onClear(x, y);
+    }
+
+    public void clearLine(int x, int y, boolean horizontal) {
+        if (horizontal) {
+            for (int w = 0; w < width; w++) clear(w, y);
+        } else {
+            for (int w = 0; w < height; w++) clear(x, w);
+        }
+    }
+
+    public void clearBomb(int x, int y) {
+        for (int w = x - 1; w <= x + 1; w++) {
+            for (int l = y - 1; l <= y + 1; l++) {
+                if (contains(w, l)) clear(w, l);
+            }
+        }
+    }
+
+    public void clearType(int type) {
+        if (type == EMPTY) return;
+        for (int w = 0; w < width; w++) {
+            for (int l = 0; l < height; l++) {
+                if (getType(w, l) == type) clear(w, l);
+            }
+        }
+    }
+
+    /**
+     * Empties the whole board, used when there are no moves left. Does not count as cleared.
+     */
+    public void clearAll() {
+        int before = cleared;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                clear(x, y);
+            }
+        }
+        cleared = before;
+    }
+
+    private boolean matchHasBonus(Matches matches, int m) {
+        for (int i = 0; i < matches.length(m); i++) {
+            if (getBonus(matches.x(m, i), matches.y(m, i)) != NORMAL) return true;
+        }
+        return false;
+    }
+
+    //SNAPSHOTS
+    /**
+     * Copies every cell into cells, width * height types followed by as many bonuses.
+     */
+    public void snapshot(byte[] cells) {
+        int n = width * height;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                cells[x * height + y] = (byte) getType(x, y);
+            }
+        }
+        System.arraycopy(bonuses, 0, cells, n, n);
+    }
+
+    /**
+     * Puts back the cells of a snapshot and the cleared count. No listener event is fired.
+     */
+    public void restore(byte[] cells, int cleared) {
+        int n = width * height;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                set(x, y, cells[x * height + y], cells[n + x * height + y]);
+            }
+        }
+        this.cleared = cleared;
+    }
+
+    //GRAVITY AND REFILL
+    /**
+     * Drops every jewel onto the EMPTY cells below it (row 0 is the top of the board).
+     * Returns the number of jewels that moved.
+     */
+    public int applyGravity() {
+        int moved = 0;
+        for (int x = 0; x < width; x++) {
+            int write = height - 1;
+            for (int y = height - 1; y >= 0; y--) {
+                if (isEmpty(x, y)) continue;
+                if (y != write) {
+                    set(x, write, getType(x, y), getBonus(x, y));
+                    set(x, y, EMPTY, NORMAL);
+                    moved++;
+                    if (listener != null) listener.onFall(x, y, write);
+                }
+                write--;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Generates new jewels in every EMPTY cell. Returns the number of jewels created.
+     */
+    public int refill() {
+        int spawned = 0;
+        for (int x = width - 1; x >= 0; x--) {
+            for (int y = height - 1; y >= 0; y--) {
+                if (!isEmpty(x, y)) continue;
+                set(x, y, randomType(), randomBonus());
+                spawned++;
+                if (listener != null) listener.onSpawn(x, y);
+            }
+        }
+        return spawned;
+    }
+
+    /**
+     * Runs the whole cascade at once: clear, drop and refill until no match is left.
+     * Returns the number of cascade steps.
+     */
+    public int resolve() {
+        int depth = 0;
+        while (hasMatch()) {
+            clearMatches();
+            applyGravity();
+            refill();
+            depth++;
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,175 @@
+package gamecontrol;
+
+/**
+ * The move and cascade flow of a {@link BoardModel} as an explicit state machine: swap, clear,
+ * fall, refill and check again until the board settles. Every state is left as soon as the
+ * listener has no animations running for it, and in instant mode (or without a listener)
+ * update() runs the whole cascade at once.
+ */
+public class Cascade {
+
+    public enum State {
+        /**
+         * Waiting for a move.
+         */
+        IDLE,
+        /**
+         * Waiting for the board to be still before checking it, after generation.
+         */
+        SETTLING,
+        SWAPPING,
+        SWAPPING_BACK,
+        CLEARING,
+        FALLING,
+        REFILLING
+    }
+
+    //guard against a board that never settles in instant mode
+    private static final int MAX_INSTANT_STEPS = 100000;
+
+    private final BoardModel model;
+    private CascadeListener listener;
+    private State state = State.IDLE;
+    private boolean instant;
+    private int swapX1, swapY1, swapX2, swapY2;
+    private int depth, shuffles;
+
+    public Cascade(BoardModel model) {
+        this.model = model;
+    }
+
+    public void setListener(CascadeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Instant mode does not wait for animations, every update() runs until the board is IDLE.
+     */
+    public void setInstant(boolean instant) {
+        this.instant = instant;
+    }
+
+    public boolean isInstant() {
+        return instant;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isIdle() {
+        return state == State.IDLE;
+    }
+
+    /**
+     * Cascade steps of the current move so far.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Boards cleared because they had no moves left, since the cascade was created.
+     */
+    public int getShuffles() {
+        return shuffles;
+    }
+
+    /**
+     * Checks the board once it is still, for a new or externally changed board.
+     */
+    public void settle() {
+        depth = 0;
+        state = State.SETTLING;
+    }
+
+    /**
+     * Swaps two cells in the model. Only accepted while IDLE.
+     */
+    public boolean swap(int x1, int y1, int x2, int y2) {
+        if (state != State.IDLE) return false;
+        model.swap(x1, y1, x2, y2);
+        swapX1 = x1;
+        swapY1 = y1;
+        swapX2 = x2;
+        swapY2 = y2;
+        depth = 0;
+        state = State.SWAPPING;
+        return true;
+    }
+
+    /**
+     * Clears the whole board, it falls and is refilled like after a match. Only accepted while
+     * IDLE.
+     */
+    public boolean shuffle() {
+        if (state != State.IDLE) return false;
+        clearAll();
+        return true;
+    }
+
+    public void update() {
+        if (instant || listener == null) {
+            for (int i = 0; state != State.IDLE && i < MAX_INSTANT_STEPS; i++) advance();
+        } else if (state != State.IDLE && !listener.isAnimating(state)) {
+            advance();
+        }
+    }
+
+    private void advance() {
+        switch (state) {
+            case SETTLING:
+            case REFILLING:
+                check();
+                break;
+            case SWAPPING:
+                if (model.hasMatch()) {
+                    check();
+                } else {
+                    model.swap(swapX2, swapY2, swapX1, swapY1);
+                    state = State.SWAPPING_BACK;
+                    if (listener != null) listener.onSwapRejected(swapX2, swapY2, swapX1, swapY1);
+                }
+                break;
+            case SWAPPING_BACK:
+                idle();
+                break;
+            case CLEARING:
+                state = State.FALLING;
+                model.applyGravity();
+                break;
+            case FALLING:
+                state = State.REFILLING;
+                if (listener != null) listener.onRefill();
+                model.refill();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void check() {
+        if (model.hasMatch()) {
+            state = State.CLEARING;
+            depth++;
+            int cleared = model.clearMatches();
+            if (listener != null) listener.onCleared(cleared);
+        } else if (!model.hasMoves()) {
+            shuffles++;
+            clearAll();
+        } else {
+            idle();
+        }
+    }
+
+    private void clearAll() {
+        depth = 0;
+        model.clearAll();
+        state = State.CLEARING;
+    }
+
+    private void idle() {
+        state = State.IDLE;
+        if (listener != null) listener.onIdle();
+    }
+}
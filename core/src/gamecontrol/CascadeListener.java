@@ -0,0 +1,34 @@
+package gamecontrol;
+
+/**
+ * Hooks a view into the {@link Cascade} state machine. The cell level changes still arrive
+ * through {@link BoardListener}.
+ */
+public interface CascadeListener {
+
+    /**
+     * Whether the animations started for the current state are still running. The cascade
+     * only leaves a state once this returns false.
+     */
+    boolean isAnimating(Cascade.State state);
+
+    /**
+     * A cascade step cleared count jewels.
+     */
+    void onCleared(int count);
+
+    /**
+     * The fallen jewels are in place and the board is about to be refilled.
+     */
+    void onRefill();
+
+    /**
+     * A swap made no match and was undone in the model, the view swaps back.
+     */
+    void onSwapRejected(int x1, int y1, int x2, int y2);
+
+    /**
+     * The board settled and waits for a move.
+     */
+    void onIdle();
+}
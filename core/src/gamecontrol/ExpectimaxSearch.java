@@ -0,0 +1,301 @@
+package gamecontrol;
+
+import helpers.GameRandom;
+
+/**
+ * Depth limited expectimax over the moves of a {@link BoardModel}, for hints and difficulty
+ * estimates. Max nodes pick the best move, chance nodes average a few sampled refills since the
+ * new jewels are random, and every move is scored by a pluggable {@link MoveHeuristic}.
+ *
+ * The search deepens one move at a time until the depth limit or the time budget is reached
+ * and answers with the deepest search that finished. Samples of a move stop as soon as the
+ * move cannot beat the best sibling even with perfect remaining samples (star1 pruning with
+ * the heuristic cap), and settled boards are cached in a transposition table keyed on their
+ * Zobrist hash. Refill samples are seeded from the board hash, so a board always gets the same
+ * samples and cached values stay consistent. Not thread safe, use one search per thread.
+ */
+public class ExpectimaxSearch {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    public static class Result {
+        public int x1, y1, x2, y2, d;
+        //expected value of the move over the searched depth
+        public float value;
+        //deepest search that finished, and the moves it played to get there
+        public int depth, nodes;
+
+        public String toString() {
+            return "{x: " + x1 + ", y: " + y1 + ", d: " + d + ", value: " + value + ", depth: "
+                    + depth + ", nodes: " + nodes + "}";
+        }
+    }
+
+    private MoveHeuristic heuristic = new WeightedHeuristic();
+    private int maxDepth = 2, samples = 3;
+    private float discount = .9f;
+
+    //SEARCH BOARD
+    private BoardModel model;
+    private Cascade cascade;
+    private final GameRandom random = new GameRandom(0);
+    private final MoveOutcome outcome = new MoveOutcome();
+    private final BoardListener counter = new BoardListener() {
+        @Override
+        public void onClear(int x, int y) {
+        }
+
+        @Override
+        public void onBonus(int x, int y, int bonus, boolean horizontal) {
+            outcome.addBonus(bonus);
+        }
+
+        @Override
+        public void onFall(int x, int fromY, int toY) {
+        }
+
+        @Override
+        public void onSpawn(int x, int y) {
+        }
+    };
+    //per depth, the board to go back to and the moves to try
+    private byte[][] cells;
+    private int[][] moves;
+
+    //TRANSPOSITION TABLE, exact values of settled boards for a remaining depth
+    private int tableMask;
+    private long[] tableKeys;
+    private float[] tableValues;
+    private byte[] tableDepths;
+    private int[] tableStamps;
+    private int stamp;
+
+    private long deadline;
+    private boolean aborted;
+    private int nodes;
+    private float rootValue;
+
+    public ExpectimaxSearch() {
+        this(1 << 16);
+    }
+
+    /**
+     * tableSize is rounded up to a power of two.
+     */
+    public ExpectimaxSearch(int tableSize) {
+        int size = Integer.highestOneBit(Math.max(2, tableSize - 1)) << 1;
+        tableMask = size - 1;
+        tableKeys = new long[size];
+        tableValues = new float[size];
+        tableDepths = new byte[size];
+        tableStamps = new int[size];
+    }
+
+    public void setHeuristic(MoveHeuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Moves to look ahead, 1 only scores the moves of the board.
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1 || maxDepth > 100) {
+            throw new IllegalArgumentException("maxDepth must be between 1 and 100");
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Refills sampled for every move.
+     */
+    public void setSamples(int samples) {
+        if (samples < 1) throw new IllegalArgumentException("samples must be positive");
+        this.samples = samples;
+    }
+
+    /**
+     * How much each move ahead counts compared to the one before.
+     */
+    public void setDiscount(float discount) {
+        this.discount = discount;
+    }
+
+    /**
+     * Best move of the board within budgetMillis, or null when it has no moves. The board is
+     * not changed.
+     */
+    public Result search(BoardModel source, float budgetMillis) {
+        prepare(source);
+        deadline = System.nanoTime() + (long) (budgetMillis * 1000000);
+        aborted = false;
+        nodes = 0;
+        //values of older searches may come from another heuristic
+        stamp++;
+
+        byte[] start = cells[maxDepth];
+        source.snapshot(start);
+        Result result = null;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            model.restore(start, 0);
+            int best = root(depth);
+            if (aborted) break;
+            if (best < 0) return null;
+            if (result == null) result = new Result();
+            int[] rootMoves = moves[maxDepth];
+            result.x1 = rootMoves[best * 3];
+            result.y1 = rootMoves[best * 3 + 1];
+            result.d = rootMoves[best * 3 + 2];
+            result.x2 = Moves.toX(result.x1, result.d);
+            result.y2 = Moves.toY(result.y1, result.d);
+            result.value = rootValue;
+            result.depth = depth;
+            result.nodes = nodes;
+        }
+        //not even depth 1 finished, answer with the first move
+        if (result == null) {
+            model.restore(start, 0);
+            if (collectMoves(maxDepth) == 0) return null;
+            result = new Result();
+            result.x1 = moves[maxDepth][0];
+            result.y1 = moves[maxDepth][1];
+            result.d = moves[maxDepth][2];
+            result.x2 = Moves.toX(result.x1, result.d);
+            result.y2 = Moves.toY(result.y1, result.d);
+        }
+        return result;
+    }
+
+    /**
+     * Expected value of the best move of the board over depth moves, 0 without moves. Lower
+     * values mean a harder board.
+     */
+    public float evaluate(BoardModel source, int depth, float budgetMillis) {
+        int previous = maxDepth;
+        setMaxDepth(depth);
+        Result result = search(source, budgetMillis);
+        maxDepth = previous;
+        return result == null ? 0 : result.value;
+    }
+
+    //index of the best root move for the depth, -1 without moves
+    private int root(int depth) {
+        int count = collectMoves(maxDepth);
+        if (count == 0) return -1;
+        byte[] board = cells[maxDepth];
+        long hash = model.hash();
+        int best = -1;
+        float bestValue = Float.NEGATIVE_INFINITY;
+        for (int m = 0; m < count && !aborted; m++) {
+            float value = chance(moves[maxDepth], m, depth, board, hash, bestValue);
+            if (value > bestValue) {
+                bestValue = value;
+                best = m;
+            }
+        }
+        rootValue = bestValue;
+        return best;
+    }
+
+    //value of the best move of the settled board in the model
+    private float max(int depth) {
+        if (depth == 0 || aborted) return 0;
+
+        byte[] board = cells[depth];
+        model.snapshot(board);
+        long hash = model.hash();
+        int slot = (int) (hash ^ (hash >>> 32) ^ depth * GOLDEN_GAMMA) & tableMask;
+        if (tableStamps[slot] == stamp && tableKeys[slot] == hash
+                && tableDepths[slot] == depth) {
+            return tableValues[slot];
+        }
+
+        int count = collectMoves(depth);
+        float best = 0;
+        if (count > 0) {
+            best = Float.NEGATIVE_INFINITY;
+            for (int m = 0; m < count && !aborted; m++) {
+                best = Math.max(best, chance(moves[depth], m, depth, board, hash, best));
+            }
+        }
+        if (!aborted) {
+            tableStamps[slot] = stamp;
+            tableKeys[slot] = hash;
+            tableDepths[slot] = (byte) depth;
+            tableValues[slot] = best;
+        }
+        return best;
+    }
+
+    //average over the sampled refills of a move, or an upper bound not above alpha once the
+    //move cannot beat it
+    private float chance(int[] list, int m, int depth, byte[] board, long hash, float alpha) {
+        int x = list[m * 3], y = list[m * 3 + 1], d = list[m * 3 + 2];
+        float cap = heuristic.maxValue(model) * horizon(depth);
+        float sum = 0;
+        for (int s = 0; s < samples; s++) {
+            nodes++;
+            if (System.nanoTime() - deadline > 0) {
+                aborted = true;
+                return 0;
+            }
+            model.restore(board, 0);
+            random.setSeed(hash + (s + 1) * GOLDEN_GAMMA);
+            outcome.reset();
+            int shuffles = cascade.getShuffles();
+            cascade.swap(x, y, Moves.toX(x, d), Moves.toY(y, d));
+            cascade.update();
+            outcome.cleared = model.getCleared();
+            outcome.depth = cascade.getDepth();
+            outcome.shuffled = cascade.getShuffles() != shuffles;
+
+            sum += heuristic.evaluate(outcome, model) + discount * max(depth - 1);
+            if (aborted) return 0;
+            float bound = (sum + (samples - s - 1) * cap) / samples;
+            if (bound <= alpha) return bound;
+        }
+        return sum / samples;
+    }
+
+    //the most a move can be worth with depth moves to go
+    private float horizon(int depth) {
+        float total = 0, weight = 1;
+        for (int i = 0; i < depth; i++) {
+            total += weight;
+            weight *= discount;
+        }
+        return total;
+    }
+
+    //copies the moves of the model into moves[depth], solutions() reuses its view
+    private int collectMoves(int depth) {
+        Moves sols = model.solutions();
+        int count = sols.size();
+        int[] list = moves[depth];
+        if (list.length < count * 3) list = moves[depth] = new int[count * 3];
+        for (int i = 0; i < count; i++) {
+            list[i * 3] = sols.x(i);
+            list[i * 3 + 1] = sols.y(i);
+            list[i * 3 + 2] = sols.direction(i);
+        }
+        return count;
+    }
+
+    private void prepare(BoardModel source) {
+        if (model == null || model.getWidth() != source.getWidth()
+                || model.getHeight() != source.getHeight()
+                || model.getNumTypes() != source.getNumTypes()
+                || model.getBonusProb() != source.getBonusProb()) {
+            model = new BoardModel(source.getWidth(), source.getHeight(), source.getNumTypes(),
+                                   source.getBonusProb());
+            model.setRandom(random);
+            model.setListener(counter);
+            cascade = new Cascade(model);
+            cascade.setInstant(true);
+            cells = null;
+        }
+        if (cells == null || cells.length != maxDepth + 1) {
+            cells = new byte[maxDepth + 1][model.getWidth() * model.getHeight() * 2];
+            moves = new int[maxDepth + 1][64];
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package gamecontrol;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Bitboard match detection. Every jewel type keeps one long per row (bit x set when the cell
+ * holds that type) and one long per column (bit y), so runs of three or more are found with
+ * shift-and-AND instead of walking the grid. Type 0 is EMPTY and never matches.
+ */
+public class MatchEngine {
+
+    public static final int MAX_SIZE = 64;
+    public static final int EMPTY = 0;
+
+    private final int width, height, numTypes;
+    private final byte[] types;
+
+    //BITBOARDS
+    final long[][] rows;
+    final long[][] columns;
+    private final long[] lineCells;
+
+    public MatchEngine(int width, int height, int numTypes) {
+        if (width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException(
+                    "Board " + width + "x" + height + " exceeds " + MAX_SIZE + " cells per line");
+        }
+        this.width = width;
+        this.height = height;
+        this.numTypes = numTypes;
+        types = new byte[width * height];
+        rows = new long[numTypes][height];
+        columns = new long[numTypes][width];
+        lineCells = new long[numTypes];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumTypes() {
+        return numTypes;
+    }
+
+    public int get(int x, int y) {
+        return types[x * height + y];
+    }
+
+    /**
+     * Stores a type in a cell, returns false when the cell already held it.
+     */
+    public boolean set(int x, int y, int type) {
+        int old = types[x * height + y];
+        if (old == type) return false;
+        rows[old][y] &= ~(1L << x);
+        columns[old][x] &= ~(1L << y);
+        rows[type][y] |= 1L << x;
+        columns[type][x] |= 1L << y;
+        types[x * height + y] = (byte) type;
+        return true;
+    }
+
+    public void swap(int x1, int y1, int x2, int y2) {
+        int temp = get(x1, y1);
+        set(x1, y1, get(x2, y2));
+        set(x2, y2, temp);
+    }
+
+    public void clear() {
+        for (int i = 0; i < types.length; i++) {
+            set(i / height, i % height, EMPTY);
+        }
+    }
+
+    public boolean hasMatch() {
+        for (int t = 1; t < numTypes; t++) {
+            long[] typeRows = rows[t];
+            for (int y = 0; y < height; y++) {
+                long r = typeRows[y];
+                if ((r & (r >>> 1) & (r >>> 2)) != 0) return true;
+            }
+            for (int y = 0; y < height - 2; y++) {
+                if ((typeRows[y] & typeRows[y + 1] & typeRows[y + 2]) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends every run of three or more as (x, y, length, horizontal) to out, rows first
+     * (top to bottom, left to right) and then columns. Returns the number of runs found.
+     */
+    public int findRuns(IntArray out) {
+        int found = 0;
+        for (int y = 0; y < height; y++) {
+            found += findLineRuns(rows, y, true, out);
+        }
+        for (int x = 0; x < width; x++) {
+            found += findLineRuns(columns, x, false, out);
+        }
+        return found;
+    }
+
+    private int findLineRuns(long[][] lines, int line, boolean horizontal, IntArray out) {
+        long starts = 0;
+        for (int t = 1; t < numTypes; t++) {
+            long l = lines[t][line];
+            long m = l & (l >>> 1) & (l >>> 2);
+            long cells = m | (m << 1) | (m << 2);
+            lineCells[t] = cells;
+            starts |= cells & ~(cells << 1);
+        }
+
+        int found = 0;
+        while (starts != 0) {
+            int i = Long.numberOfTrailingZeros(starts);
+            starts &= starts - 1;
+            int type = horizontal ? get(i, line) : get(line, i);
+            int length = Long.numberOfTrailingZeros(~(lineCells[type] >>> i));
+            out.add(horizontal ? i : line);
+            out.add(horizontal ? line : i);
+            out.add(length);
+            out.add(horizontal ? 1 : 0);
+            found++;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,89 @@
+package gamecontrol;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The matches on a board, as returned by BoardModel.check(). Every match is a straight run of
+ * cells stored as packed ints, so any board size fits and filling it only allocates while the
+ * buffers grow. The view is reused by the model and only valid until the next check().
+ */
+public class Matches {
+
+    //per match: first cell in cells, length and 1 when horizontal
+    private final IntArray runs = new IntArray();
+    //cells of every match, x << 16 | y
+    private final IntArray cells = new IntArray();
+
+    public static int pack(int x, int y) {
+        return x << 16 | y;
+    }
+
+    public static int unpackX(int cell) {
+        return cell >>> 16;
+    }
+
+    public static int unpackY(int cell) {
+        return cell & 0xFFFF;
+    }
+
+    void clear() {
+        runs.clear();
+        cells.clear();
+    }
+
+    void add(int x, int y, int length, boolean horizontal) {
+        runs.add(cells.size);
+        runs.add(length);
+        runs.add(horizontal ? 1 : 0);
+        for (int k = 0; k < length; k++) {
+            cells.add(horizontal ? pack(x + k, y) : pack(x, y + k));
+        }
+    }
+
+    public int size() {
+        return runs.size / 3;
+    }
+
+    public int length(int match) {
+        return runs.get(match * 3 + 1);
+    }
+
+    public boolean isHorizontal(int match) {
+        return runs.get(match * 3 + 2) == 1;
+    }
+
+    /**
+     * Packed cell i of a match, see unpackX and unpackY.
+     */
+    public int cell(int match, int i) {
+        return cells.get(runs.get(match * 3) + i);
+    }
+
+    public int x(int match, int i) {
+        return unpackX(cell(match, i));
+    }
+
+    public int y(int match, int i) {
+        return unpackY(cell(match, i));
+    }
+
+    public boolean contains(int x, int y) {
+        int cell = pack(x, y);
+        for (int i = 0; i < cells.size; i++) {
+            if (cells.get(i) == cell) return true;
+        }
+        return false;
+    }
+
+    public String toString() {
+        StringBuilder string = new StringBuilder();
+        for (int m = 0; m < size(); m++) {
+            string.append("Matches: ");
+            for (int i = 0; i < length(m); i++) {
+                string.append('(').append(x(m, i)).append(", ").append(y(m, i)).append(')');
+            }
+            string.append('\n');
+        }
+        return string.toString();
+    }
+}
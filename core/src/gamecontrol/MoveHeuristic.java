@@ -0,0 +1,18 @@
+package gamecontrol;
+
+/**
+ * Scores a move for {@link ExpectimaxSearch}.
+ */
+public interface MoveHeuristic {
+
+    /**
+     * Value of a move from what it did and the board it left, after the cascade settled.
+     */
+    float evaluate(MoveOutcome outcome, BoardModel board);
+
+    /**
+     * The most evaluate() should return for one move on the board, used to prune moves that
+     * cannot beat the best one found so far. A low cap prunes more and can miss big cascades.
+     */
+    float maxValue(BoardModel board);
+}
@@ -0,0 +1,150 @@
+package gamecontrol;
+
+/**
+ * Keeps track of which adjacent swaps would create a match on a {@link MatchEngine} board.
+ * Every horizontal pair (x, y)-(x + 1, y) and vertical pair (x, y)-(x, y + 1) has one bit,
+ * and a changed cell only dirties the pairs whose result it can affect, so after a swap or a
+ * fall just the touched rows and columns are re-evaluated.
+ */
+public class MoveIndex {
+
+    private final MatchEngine engine;
+    private final int width, height;
+
+    //bit x of [y]: swapping (x, y) with (x + 1, y) / (x, y + 1) makes a match
+    private final long[] horizontal, vertical;
+    private final long[] dirtyHorizontal, dirtyVertical;
+    private boolean dirty;
+
+    public MoveIndex(MatchEngine engine) {
+        this.engine = engine;
+        width = engine.getWidth();
+        height = engine.getHeight();
+        horizontal = new long[height];
+        vertical = new long[height];
+        dirtyHorizontal = new long[height];
+        dirtyVertical = new long[height];
+        markAllDirty();
+    }
+
+    public void markAllDirty() {
+        for (int y = 0; y < height; y++) {
+            markRange(dirtyHorizontal, y, 0, width - 2, width - 2);
+            if (y < height - 1) markRange(dirtyVertical, y, 0, width - 1, width - 1);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Must be called whenever the type of a cell changes in the engine.
+     */
+    public void cellChanged(int x, int y) {
+        //horizontal pairs read their own row from a - 2 to a + 3 and both columns 2 cells away
+        markRange(dirtyHorizontal, y, x - 3, x + 2, width - 2);
+        for (int b = y - 2; b <= y + 2; b++) {
+            markRange(dirtyHorizontal, b, x - 1, x, width - 2);
+        }
+        //vertical pairs read their own column from b - 2 to b + 3 and both rows 2 cells away
+        for (int b = y - 3; b <= y + 2; b++) {
+            if (b < height - 1) markRange(dirtyVertical, b, x, x, width - 1);
+        }
+        for (int b = y - 1; b <= y; b++) {
+            if (b < height - 1) markRange(dirtyVertical, b, x - 2, x + 2, width - 1);
+        }
+        dirty = true;
+    }
+
+    public boolean hasMoves() {
+        refresh();
+        for (int y = 0; y < height; y++) {
+            if ((horizontal[y] | vertical[y]) != 0) return true;
+        }
+        return false;
+    }
+
+    public int count() {
+        refresh();
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            count += Long.bitCount(horizontal[y]) + Long.bitCount(vertical[y]);
+        }
+        return count;
+    }
+
+    /**
+     * Whether swapping (x, y) with (x + 1, y) makes a match.
+     */
+    public boolean horizontalMove(int x, int y) {
+        refresh();
+        return (horizontal[y] >>> x & 1L) != 0;
+    }
+
+    /**
+     * Whether swapping (x, y) with (x, y + 1) makes a match.
+     */
+    public boolean verticalMove(int x, int y) {
+        refresh();
+        return (vertical[y] >>> x & 1L) != 0;
+    }
+
+    private void refresh() {
+        if (!dirty) return;
+        for (int y = 0; y < height; y++) {
+            long pending = dirtyHorizontal[y];
+            while (pending != 0) {
+                int x = Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+                if (evaluateHorizontal(x, y)) horizontal[y] |= 1L << x;
+                else horizontal[y] &= ~(1L << x);
+            }
+            dirtyHorizontal[y] = 0;
+
+            pending = dirtyVertical[y];
+            while (pending != 0) {
+                int x = Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+                if (evaluateVertical(x, y)) vertical[y] |= 1L << x;
+                else vertical[y] &= ~(1L << x);
+            }
+            dirtyVertical[y] = 0;
+        }
+        dirty = false;
+    }
+
+    private boolean evaluateHorizontal(int a, int b) {
+        int t1 = engine.get(a, b), t2 = engine.get(a + 1, b);
+        if (t1 == t2) return false;
+        if (t2 != MatchEngine.EMPTY && (both(engine.rows[t2][b], a - 1, a - 2)
+                || crosses(engine.columns[t2][a], b))) return true;
+        return t1 != MatchEngine.EMPTY && (both(engine.rows[t1][b], a + 2, a + 3)
+                || crosses(engine.columns[t1][a + 1], b));
+    }
+
+    private boolean evaluateVertical(int a, int b) {
+        int t1 = engine.get(a, b), t2 = engine.get(a, b + 1);
+        if (t1 == t2) return false;
+        if (t2 != MatchEngine.EMPTY && (both(engine.columns[t2][a], b - 1, b - 2)
+                || crosses(engine.rows[t2][b], a))) return true;
+        return t1 != MatchEngine.EMPTY && (both(engine.columns[t1][a], b + 2, b + 3)
+                || crosses(engine.rows[t1][b + 1], a));
+    }
+
+    //true when a jewel dropped at i would complete a run of three along the line
+    private static boolean crosses(long line, int i) {
+        return both(line, i - 2, i - 1) || both(line, i - 1, i + 1) || both(line, i + 1, i + 2);
+    }
+
+    private static boolean both(long line, int i, int j) {
+        if (i < 0 || j < 0 || i >= MatchEngine.MAX_SIZE || j >= MatchEngine.MAX_SIZE) return false;
+        return ((line >>> i) & (line >>> j) & 1L) != 0;
+    }
+
+    private void markRange(long[] mask, int line, int from, int to, int max) {
+        if (line < 0 || line >= height) return;
+        if (from < 0) from = 0;
+        if (to > max) to = max;
+        if (from > to) return;
+        long bits = (to - from == 63) ? -1L : ((1L << (to - from + 1)) - 1);
+        mask[line] |= bits << from;
+    }
+}
@@ -0,0 +1,43 @@
+package gamecontrol;
+
+/**
+ * What one move did to the board, from the swap until the cascade settled.
+ */
+public class MoveOutcome {
+
+    public int cleared;
+    //bonuses set off, by BoardModel bonus type
+    public int rays, bombs, bitcoins;
+    //cascade steps, 1 for a plain match
+    public int depth;
+    //the board had no moves left and was cleared and refilled
+    public boolean shuffled;
+
+    public void reset() {
+        cleared = 0;
+        rays = 0;
+        bombs = 0;
+        bitcoins = 0;
+        depth = 0;
+        shuffled = false;
+    }
+
+    public void addBonus(int bonus) {
+        switch (bonus) {
+            case BoardModel.RAY:
+                rays++;
+                break;
+            case BoardModel.BOMB:
+                bombs++;
+                break;
+            case BoardModel.BITCOIN:
+                bitcoins++;
+                break;
+        }
+    }
+
+    public String toString() {
+        return "{cleared: " + cleared + ", rays: " + rays + ", bombs: " + bombs + ", bitcoins: "
+                + bitcoins + ", depth: " + depth + "}";
+    }
+}
@@ -0,0 +1,250 @@
+package gamecontrol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import helpers.GameRandom;
+
+/**
+ * Monte-Carlo move search. Every valid move is scored by seeded rollouts: the move and its
+ * cascade, then a few random moves, on a private copy of the board. Each worker thread keeps
+ * its own board and random stream and runs rollouts over all the moves until the time budget
+ * ends, then the averages of all workers are merged and the move with the best expected score
+ * wins. A search runs in the background, poll {@link Search#isDone()} from the game loop.
+ */
+public class MoveSolver {
+
+    //random moves played after the candidate, and how much less each of them counts
+    public static final int ROLLOUT_DEPTH = 3;
+    public static final float DISCOUNT = .5f;
+
+    /**
+     * The chosen move and the mean score of its rollouts.
+     */
+    public static class Result {
+        public int x1, y1, x2, y2, d;
+        public float expectedScore;
+        public int rollouts;
+
+        public String toString() {
+            return "{x: " + x1 + ", y: " + y1 + ", d: " + d + ", expected: " + expectedScore
+                    + ", rollouts: " + rollouts + "}";
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Worker[] workers;
+    private Search current;
+
+    /**
+     * A solver with one worker per core, the rendering thread keeps one core.
+     */
+    public MoveSolver() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public MoveSolver(int threads) {
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "MoveSolver");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) workers[i] = new Worker();
+    }
+
+    /**
+     * Starts scoring the moves of the model for budgetMillis. The model is copied, so it can
+     * change while the search runs. A search that is still running is waited for first.
+     * Returns null when the model has no moves.
+     */
+    public Search start(BoardModel model, long seed, float budgetMillis) {
+        if (current != null) current.get();
+        current = null;
+
+        Moves sols = model.solutions();
+        int count = sols.size();
+        if (count == 0) return null;
+        int[] moves = new int[count * 3];
+        for (int i = 0; i < count; i++) {
+            moves[i * 3] = sols.x(i);
+            moves[i * 3 + 1] = sols.y(i);
+            moves[i * 3 + 2] = sols.direction(i);
+        }
+
+        byte[] cells = new byte[model.getWidth() * model.getHeight() * 2];
+        model.snapshot(cells);
+        long deadline = System.nanoTime() + (long) (budgetMillis * 1000000);
+        GameRandom seeds = new GameRandom(seed);
+
+        current = new Search(moves, count);
+        for (int i = 0; i < workers.length; i++) {
+            Worker worker = workers[i];
+            worker.prepare(model, cells, moves, count, seeds.nextLong(), deadline);
+            current.futures.add(executor.submit(worker));
+        }
+        return current;
+    }
+
+    /**
+     * Scores the moves and waits for the result. Returns null when the model has no moves.
+     */
+    public Result solve(BoardModel model, long seed, float budgetMillis) {
+        Search search = start(model, seed, budgetMillis);
+        return search == null ? null : search.get();
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+    }
+
+    public class Search {
+        private final int[] moves;
+        private final int count;
+        private final List<Future<Worker>> futures = new ArrayList<Future<Worker>>();
+        private Result result;
+
+        private Search(int[] moves, int count) {
+            this.moves = moves;
+            this.count = count;
+        }
+
+        public boolean isDone() {
+            for (int i = 0; i < futures.size(); i++) {
+                if (!futures.get(i).isDone()) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Merges the rollouts of every worker, waiting for them if needed.
+         */
+        public Result get() {
+            if (result != null) return result;
+            double[] totals = new double[count];
+            int[] rollouts = new int[count];
+            for (int i = 0; i < futures.size(); i++) {
+                Worker worker;
+                try {
+                    worker = futures.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                for (int m = 0; m < count; m++) {
+                    totals[m] += worker.totals[m];
+                    rollouts[m] += worker.rollouts[m];
+                }
+            }
+
+            int best = 0;
+            double bestScore = -1;
+            int total = 0;
+            for (int m = 0; m < count; m++) {
+                total += rollouts[m];
+                double score = rollouts[m] == 0 ? 0 : totals[m] / rollouts[m];
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = m;
+                }
+            }
+
+            result = new Result();
+            result.x1 = moves[best * 3];
+            result.y1 = moves[best * 3 + 1];
+            result.d = moves[best * 3 + 2];
+            result.x2 = Moves.toX(result.x1, result.d);
+            result.y2 = Moves.toY(result.y1, result.d);
+            result.expectedScore = (float) bestScore;
+            result.rollouts = total;
+            if (current == this) current = null;
+            return result;
+        }
+    }
+
+    //one per thread, the board, cascade and random stream are reused by every search
+    private static class Worker implements Callable<Worker> {
+        private BoardModel model;
+        private Cascade cascade;
+        private final GameRandom random = new GameRandom(0);
+        private byte[] cells;
+        private int[] moves;
+        private int count;
+        private long deadline;
+        private double[] totals = new double[0];
+        private int[] rollouts = new int[0];
+
+        void prepare(BoardModel source, byte[] cells, int[] moves, int count, long seed,
+                     long deadline) {
+            if (model == null || model.getWidth() != source.getWidth()
+                    || model.getHeight() != source.getHeight()
+                    || model.getNumTypes() != source.getNumTypes()
+                    || model.getBonusProb() != source.getBonusProb()) {
+                model = new BoardModel(source.getWidth(), source.getHeight(),
+                                       source.getNumTypes(), source.getBonusProb());
+                model.setRandom(random);
+                cascade = new Cascade(model);
+                cascade.setInstant(true);
+            }
+            random.setSeed(seed);
+            this.cells = cells;
+            this.moves = moves;
+            this.count = count;
+            this.deadline = deadline;
+            if (totals.length < count) {
+                totals = new double[count];
+                rollouts = new int[count];
+            }
+            for (int m = 0; m < count; m++) {
+                totals[m] = 0;
+                rollouts[m] = 0;
+            }
+        }
+
+        @Override
+        public Worker call() {
+            //every move gets one rollout per round, so they all get about the same number
+            do {
+                for (int m = 0; m < count; m++) {
+                    totals[m] += rollout(m);
+                    rollouts[m]++;
+                }
+            } while (System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted());
+            return this;
+        }
+
+        private float rollout(int m) {
+            model.restore(cells, 0);
+            int x = moves[m * 3], y = moves[m * 3 + 1], d = moves[m * 3 + 2];
+            play(x, y, d);
+            float score = model.getCleared();
+            float weight = 1;
+            for (int depth = 0; depth < ROLLOUT_DEPTH; depth++) {
+                Moves sols = model.solutions();
+                if (sols.size() == 0) break;
+                int i = random.nextInt(sols.size());
+                int before = model.getCleared();
+                play(sols.x(i), sols.y(i), sols.direction(i));
+                weight *= DISCOUNT;
+                score += weight * (model.getCleared() - before);
+            }
+            return score;
+        }
+
+        private void play(int x, int y, int d) {
+            cascade.swap(x, y, Moves.toX(x, d), Moves.toY(y, d));
+            cascade.update();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package gamecontrol;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The valid moves of a board, as returned by BoardModel.solutions(). A move is a packed cell
+ * and a direction: 0 swaps with the cell above, 1 left, 2 below and 3 right (row 0 is the top
+ * one). The view is reused by the model and only valid until the next solutions().
+ */
+public class Moves {
+
+    //per move: x << 16 | y and the direction
+    private final IntArray moves = new IntArray();
+
+    void clear() {
+        moves.clear();
+    }
+
+    void add(int x, int y, int d) {
+        moves.add(Matches.pack(x, y));
+        moves.add(d);
+    }
+
+    public int size() {
+        return moves.size / 2;
+    }
+
+    public int x(int i) {
+        return Matches.unpackX(moves.get(i * 2));
+    }
+
+    public int y(int i) {
+        return Matches.unpackY(moves.get(i * 2));
+    }
+
+    public int direction(int i) {
+        return moves.get(i * 2 + 1);
+    }
+
+    public int toX(int i) {
+        return toX(x(i), direction(i));
+    }
+
+    public int toY(int i) {
+        return toY(y(i), direction(i));
+    }
+
+    public static int toX(int x, int d) {
+        return d == 1 ? x - 1 : d == 3 ? x + 1 : x;
+    }
+
+    public static int toY(int y, int d) {
+        return d == 0 ? y - 1 : d == 2 ? y + 1 : y;
+    }
+
+    public String toString() {
+        StringBuilder string = new StringBuilder("[");
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) string.append(", ");
+            string.append("{x: ").append(x(i)).append(", y: ").append(y(i)).append(", d: ")
+                    .append(direction(i)).append('}');
+        }
+        return string.append(']').toString();
+    }
+}
@@ -0,0 +1,261 @@
+package gamecontrol;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * A recorded game: the seed and rules of the {@link BoardModel} plus every accepted move as a
+ * varint, one or two bytes per move on the usual boards. The encoded bytes are the file format,
+ * so a replay can be appended to its file while the game goes on, see flush(FileHandle).
+ * Play it back with {@link ReplayPlayer} or through the game board.
+ *
+ * Layout: "CCR", version, seed (8 bytes), width, height, types (varints), bonus probability
+ * (4 bytes), allow matches (1 byte), then one varint per move until the end of the file.
+ */
+public class Replay {
+
+    private static final byte[] MAGIC = {'C', 'C', 'R'};
+    //2: bonuses spawn less on boards longer than 7, the same seed plays a different game
+    private static final int VERSION = 2;
+    //move codes: 0 is a shuffle, a swap is 1 + cell * 4 + direction
+    private static final int SHUFFLE_CODE = 0;
+    //DIRECTIONS, same as Moves: up, left, down, right (row 0 is the top one)
+    private static final int[] DX = {0, -1, 0, 1}, DY = {-1, 0, 1, 0};
+
+    private final long seed;
+    private final int width, height, numTypes;
+    private final float bonusProb;
+    private final boolean allowMatches;
+
+    private byte[] bytes = new byte[256];
+    private int size, moveCount;
+    private final int headerSize;
+    //bytes already written by flush
+    private int flushed;
+
+    public Replay(long seed, int width, int height, int numTypes, float bonusProb,
+                  boolean allowMatches) {
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.numTypes = numTypes;
+        this.bonusProb = bonusProb;
+        this.allowMatches = allowMatches;
+
+        for (int i = 0; i < MAGIC.length; i++) writeByte(MAGIC[i]);
+        writeVarint(VERSION);
+        for (int i = 56; i >= 0; i -= 8) writeByte((int) (seed >>> i));
+        writeVarint(width);
+        writeVarint(height);
+        writeVarint(numTypes);
+        int bits = Float.floatToIntBits(bonusProb);
+        for (int i = 24; i >= 0; i -= 8) writeByte(bits >>> i);
+        writeByte(allowMatches ? 1 : 0);
+        headerSize = size;
+    }
+
+    private Replay(byte[] data, int size) {
+        bytes = data;
+        this.size = size;
+        Reader in = new Reader(0);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (in.readByte() != MAGIC[i]) throw new IllegalArgumentException("not a replay");
+        }
+        int version = in.readVarint();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unknown replay version " + version);
+        }
+        long seed = 0;
+        for (int i = 0; i < 8; i++) seed = (seed << 8) | in.readByte();
+        this.seed = seed;
+        width = in.readVarint();
+        height = in.readVarint();
+        numTypes = in.readVarint();
+        int bits = 0;
+        for (int i = 0; i < 4; i++) bits = (bits << 8) | in.readByte();
+        bonusProb = Float.intBitsToFloat(bits);
+        allowMatches = in.readByte() != 0;
+        headerSize = in.offset;
+        while (in.next()) moveCount++;
+    }
+
+    /**
+     * Decodes a replay written by toBytes() or flush(FileHandle).
+     */
+    public static Replay fromBytes(byte[] data) {
+        byte[] copy = new byte[Math.max(16, data.length)];
+        System.arraycopy(data, 0, copy, 0, data.length);
+        return new Replay(copy, data.length);
+    }
+
+    public static Replay load(FileHandle file) {
+        return fromBytes(file.readBytes());
+    }
+
+    //RECORDING
+    /**
+     * Records a swap of two adjacent cells.
+     */
+    public void addSwap(int x1, int y1, int x2, int y2) {
+        int dx = x2 - x1, dy = y2 - y1;
+        for (int d = 0; d < 4; d++) {
+            if (DX[d] == dx && DY[d] == dy) {
+                writeVarint(1 + (x1 * height + y1) * 4 + d);
+                moveCount++;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("cells are not adjacent");
+    }
+
+    /**
+     * Records a shuffle asked for by the player, the ones after a deadlock are not moves.
+     */
+    public void addShuffle() {
+        writeVarint(SHUFFLE_CODE);
+        moveCount++;
+    }
+
+    public byte[] toBytes() {
+        byte[] data = new byte[size];
+        System.arraycopy(bytes, 0, data, 0, size);
+        return data;
+    }
+
+    /**
+     * Writes what was recorded since the last flush, so the file grows with the game. The file
+     * is rewritten on the first flush.
+     */
+    public void flush(FileHandle file) {
+        if (flushed == size) return;
+        file.writeBytes(bytes, flushed, size - flushed, flushed > 0);
+        flushed = size;
+    }
+
+    //PLAYBACK
+    /**
+     * A cursor over the moves, see {@link Reader#next()}.
+     */
+    public Reader reader() {
+        return new Reader(headerSize);
+    }
+
+    /**
+     * Reads the moves recorded so far, moves added later are read too.
+     */
+    public class Reader {
+        private int offset, index;
+
+        //the last move read
+        public boolean shuffle;
+        public int x1, y1, x2, y2;
+
+        private Reader(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Reads the next move into the public fields. Returns false after the last move.
+         */
+        public boolean next() {
+            if (offset >= size) return false;
+            int code = readVarint();
+            if (code > width * height * 4) throw new IllegalArgumentException("bad move " + code);
+            index++;
+            shuffle = code == SHUFFLE_CODE;
+            if (!shuffle) {
+                int cell = (code - 1) >> 2, d = (code - 1) & 3;
+                x1 = cell / height;
+                y1 = cell % height;
+                x2 = x1 + DX[d];
+                y2 = y1 + DY[d];
+            }
+            return true;
+        }
+
+        /**
+         * Number of moves read so far.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Continues from a position saved with getOffset() and getIndex().
+         */
+        public void seek(int offset, int index) {
+            this.offset = offset;
+            this.index = index;
+        }
+
+        private int readByte() {
+            if (offset >= size) throw new IllegalArgumentException("truncated replay");
+            return bytes[offset++] & 0xFF;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("bad varint");
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumTypes() {
+        return numTypes;
+    }
+
+    public float getBonusProb() {
+        return bonusProb;
+    }
+
+    public boolean allowsMatches() {
+        return allowMatches;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Encoded size in bytes, header included.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeByte(int b) {
+        if (size == bytes.length) {
+            byte[] newBytes = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, newBytes, 0, size);
+            bytes = newBytes;
+        }
+        bytes[size++] = (byte) b;
+    }
+}
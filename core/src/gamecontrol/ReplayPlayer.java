@@ -0,0 +1,127 @@
+package gamecontrol;
+
+import com.badlogic.gdx.utils.Array;
+
+import helpers.GameRandom;
+
+/**
+ * Plays a {@link Replay} headless at full speed on its own {@link BoardModel}, with the same
+ * cascade rules as the game board. A snapshot of the board and of the random stream is kept
+ * every SNAPSHOT_INTERVAL moves, so seeking only replays the moves after the closest one.
+ */
+public class ReplayPlayer {
+
+    public static final int SNAPSHOT_INTERVAL = 64;
+
+    private static class Snapshot {
+        int index, offset, cleared;
+        final long[] random = new long[4];
+        byte[] cells;
+    }
+
+    private final Replay replay;
+    private final Replay.Reader reader;
+    private final BoardModel model;
+    private final GameRandom random;
+    private final Cascade cascade;
+    private final Array<Snapshot> snapshots = new Array<Snapshot>();
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        reader = replay.reader();
+        random = new GameRandom(replay.getSeed());
+        model = new BoardModel(replay.getWidth(), replay.getHeight(), replay.getNumTypes(),
+                               replay.getBonusProb());
+        model.setRandom(random);
+        model.generate(replay.allowsMatches());
+
+        //the board settles before the first move, like Board does after generating
+        cascade = new Cascade(model);
+        cascade.setInstant(true);
+        cascade.settle();
+        cascade.update();
+        saveSnapshot();
+    }
+
+    /**
+     * Plays the next move and its cascade. Returns false when there are no moves left.
+     */
+    public boolean step() {
+        if (!reader.next()) return false;
+        if (reader.shuffle) cascade.shuffle();
+        else cascade.swap(reader.x1, reader.y1, reader.x2, reader.y2);
+        cascade.update();
+
+        int index = reader.getIndex();
+        if (index % SNAPSHOT_INTERVAL == 0 && index / SNAPSHOT_INTERVAL == snapshots.size) {
+            saveSnapshot();
+        }
+        return true;
+    }
+
+    /**
+     * Plays every move left. Returns the final score.
+     */
+    public int playToEnd() {
+        boolean playing = true;
+        while (playing) playing = step();
+        return getScore();
+    }
+
+    /**
+     * Puts the board as it was after the given number of moves, or after the last one.
+     */
+    public void seek(int move) {
+        move = Math.max(0, Math.min(move, replay.getMoveCount()));
+        int current = reader.getIndex();
+        int closest = Math.min(move / SNAPSHOT_INTERVAL, snapshots.size - 1);
+        if (move < current || snapshots.get(closest).index > current) {
+            restoreSnapshot(snapshots.get(closest));
+        }
+        boolean playing = true;
+        while (playing && reader.getIndex() < move) playing = step();
+    }
+
+    public int getMoveIndex() {
+        return reader.getIndex();
+    }
+
+    /**
+     * Jewels cleared so far, the same number the game adds to the score.
+     */
+    public int getScore() {
+        return model.getCleared();
+    }
+
+    /**
+     * Zobrist hash of the board, equal to Board.hash() of the game at the same move.
+     */
+    public long getHash() {
+        return model.hash();
+    }
+
+    public BoardModel getModel() {
+        return model;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    private void saveSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.index = reader.getIndex();
+        snapshot.offset = reader.getOffset();
+        snapshot.cleared = model.getCleared();
+        snapshot.cells = new byte[model.getWidth() * model.getHeight() * 2];
+        model.snapshot(snapshot.cells);
+        random.getState(snapshot.random);
+        snapshots.add(snapshot);
+    }
+
+    private void restoreSnapshot(Snapshot snapshot) {
+        model.restore(snapshot.cells, snapshot.cleared);
+        random.setState(snapshot.random);
+        reader.seek(snapshot.offset, snapshot.index);
+    }
+}
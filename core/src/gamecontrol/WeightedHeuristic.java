@@ -0,0 +1,35 @@
+package gamecontrol;
+
+/**
+ * Linear MoveHeuristic: cleared jewels, bonuses set off, extra cascade steps and the moves the
+ * board has left, each with its own weight. The defaults value a move by its score and keep
+ * the board playable.
+ */
+public class WeightedHeuristic implements MoveHeuristic {
+
+    public float clearedWeight = 1;
+    public float rayWeight = 3, bombWeight = 4, bitcoinWeight = 8;
+    public float cascadeWeight = 2;
+    //per valid move left, a board with few moves is close to a deadlock
+    public float movesWeight = .1f;
+    public float shuffleWeight = -10;
+
+    @Override
+    public float evaluate(MoveOutcome outcome, BoardModel board) {
+        float value = outcome.cleared * clearedWeight
+                + outcome.rays * rayWeight + outcome.bombs * bombWeight
+                + outcome.bitcoins * bitcoinWeight
+                + Math.max(0, outcome.depth - 1) * cascadeWeight;
+        if (outcome.shuffled) value += shuffleWeight;
+        if (movesWeight != 0) value += board.solutions().size() * movesWeight;
+        return value;
+    }
+
+    @Override
+    public float maxValue(BoardModel board) {
+        //a full board clear with a few bonuses and cascade steps, bigger moves are very rare
+        int cells = board.getWidth() * board.getHeight();
+        return cells * clearedWeight + 2 * (rayWeight + bombWeight + bitcoinWeight)
+                + 3 * cascadeWeight + 4 * cells * movesWeight;
+    }
+}
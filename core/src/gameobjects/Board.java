@@ -2,35 +2,38 @@ package gameobjects;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.NinePatch;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 
 import java.util.ArrayList;
 
-import aurelienribon.tweenengine.BaseTween;
 import aurelienribon.tweenengine.Tween;
-import aurelienribon.tweenengine.TweenCallback;
 import com.badlogic.gdx.utils.Pool;
 import configuration.Configuration;
 import configuration.Settings;
-import gamecontrol.Coord;
-import gamecontrol.Match;
-import gamecontrol.MultipleMatch;
-import gamecontrol.Sols;
+import gamecontrol.BoardListener;
+import gamecontrol.BoardModel;
+import gamecontrol.Cascade;
+import gamecontrol.CascadeListener;
+import gamecontrol.Matches;
+import gamecontrol.MoveSolver;
+import gamecontrol.Moves;
+import gamecontrol.Replay;
+import gameworld.DebugOverlay;
 import gameworld.GameWorld;
+import gameworld.GridRenderer;
+import gameworld.RenderQueue;
 import helpers.AssetLoader;
 import helpers.FlatColors;
+import helpers.GameRandom;
 import helpers.GlobalPools;
 import helpers.VectorPool;
 import tweens.SpriteAccessor;
-import tweens.Value;
 
 import static configuration.Settings.NUM_OF_SQUARES_X;
 import static configuration.Settings.NUM_OF_SQUARES_Y;
@@ -38,28 +41,61 @@ import static configuration.Settings.NUM_OF_TYPES;
 import static configuration.Settings.SPACE_BETWEEN_SQUARES;
 import static configuration.Settings.SQUARE_SIZE;
 
-public class Board extends GameObject {
-
-    //LOGIC
-    public Square[][] squares = new Square[NUM_OF_SQUARES_X][NUM_OF_SQUARES_Y];
-
-    Vector2[][] pos = new Vector2[NUM_OF_SQUARES_X][NUM_OF_SQUARES_Y];
-    private MultipleMatch matches = new MultipleMatch();
-    private Match[][] columns, rows;
-    private Coord[] matchCoords = new Coord[1000];
-    private Sols[] solCoords = new Sols[1000];
-    private Array<Sols> results = new Array<Sols>();
+public class Board extends GameObject implements BoardListener, CascadeListener {
+
+    //LOGIC, the cell arrays only grow, a smaller board uses part of them
+    public Square[][] squares = new Square[0][0];
+
+    Vector2[][] pos = new Vector2[0][0];
+    public BoardModel model;
+    public Cascade cascade;
+    //the model and the moves of AUTOSOLVE get their own streams, effects use the world one
+    private final GameRandom moveRandom;
+    //every accepted move is recorded, a playback replaces the player until its last move
+    public Replay replay;
+    private Replay.Reader playback;
+    private boolean allowMatches;
+    //AUTOSOLVE, the solver threads are shared by every board
+    private static MoveSolver solver;
+    private MoveSolver.Search search;
+    private MoveSolver.Result lastSolve;
     float spaceBetweenSquares, diffX, diffY;
-    int higherNUM;
     Array<Float> delays = new Array<Float>();
+    //one back per cell, sprites of a bigger board are kept for the next one
     private ArrayList<Sprite> backs = new ArrayList<Sprite>();
+    private int numBacks;
+    //hashes of the last boards of the session, a new game never starts on one of them
+    private static final int RECENT_BOARDS = 64;
+    private final long[] recentBoards = new long[RECENT_BOARDS];
+    private int numRecentBoards, nextRecentBoard;
+    private final SquareGrid movingSquares = new SquareGrid();
+    //CHUNKS of CHUNK_SIZE x CHUNK_SIZE cells, only the cells of the chunks in view are updated
+    //and drawn, so a board bigger than the screen costs what the screen shows
+    private static final int CHUNK_SIZE = 8;
+    private int fromColumn, toColumn, fromRow, toRow;
+    //board clock and the time the animations started by the cascade end, it waits for them
+    private double cascadeTime, cascadeEnd;
 
     //GFX
     NinePatch ninepatch;
     private int bombTypeNum, rayTypeNum;
 
+    //SCHEDULED TASKS, created once and reused
+    private final Runnable autoSolveTask = new Runnable() {
+        @Override
+        public void run() {
+            startSolve();
+        }
+    };
+    private final Runnable playbackTask = new Runnable() {
+        @Override
+        public void run() {
+            playNextMove();
+        }
+    };
+
     public Board(GameWorld world, float x, float y, float width, float height,
-                 Texture texture, Color color, Shape shape) {
+                 TextureRegion texture, Color color, Shape shape) {
         super(world, x, y, width, height, texture, color, shape);
 
         ninepatch = new NinePatch(texture, 100, 100, 100, 100);
@@ -68,41 +104,103 @@ public class Board extends GameObject {
         delays.reverse();
         sprite.setAlpha(.85f);
 
-        if (NUM_OF_SQUARES_X > NUM_OF_SQUARES_Y) higherNUM = NUM_OF_SQUARES_X;
-        else higherNUM = NUM_OF_SQUARES_Y;
-
-        columns = new Match[higherNUM][higherNUM];
-        rows = new Match[higherNUM][higherNUM];
+        GameRandom modelRandom = world.random.split();
+        moveRandom = world.random.split();
+        newGame(world.getPlayback(), modelRandom);
+    }
+
+    /**
+     * Starts a new game on a NUM_OF_SQUARES_X x NUM_OF_SQUARES_Y board in the given bounds,
+     * playing source back when it is not null. The squares of the old board go back to their
+     * pool, the cell arrays and backs are reused while they are big enough and the model is
+     * only created again when the size or the rules change.
+     */
+    public void reset(float x, float y, float width, float height, Replay source) {
+        clear();
+        setBounds(x, y, width, height);
+        newGame(source, world.random.split());
+    }
+
+    private void newGame(Replay source, GameRandom modelRandom) {
+        if (source != null) modelRandom = new GameRandom(source.getSeed());
+        playback = source != null ? source.reader() : null;
+        allowMatches = source != null ? source.allowsMatches() : Settings.RANDOM_BOARD;
+
+        if (model == null || model.getWidth() != NUM_OF_SQUARES_X
+                || model.getHeight() != NUM_OF_SQUARES_Y || model.getNumTypes() != NUM_OF_TYPES
+                || model.getBonusProb() != Settings.BONUS_PROB) {
+            model = new BoardModel(NUM_OF_SQUARES_X, NUM_OF_SQUARES_Y, NUM_OF_TYPES,
+                                   Settings.BONUS_PROB);
+            model.setListener(this);
+            boolean instant = cascade != null && cascade.isInstant();
+            cascade = new Cascade(model);
+            cascade.setListener(this);
+            cascade.setInstant(instant);
+        }
+        model.setRandom(modelRandom);
+        model.generate(allowMatches);
+        //a repeated board gets a new seed, a playback keeps the recorded one
+        while (source == null && isRecentBoard(model.hash())) {
+            modelRandom = modelRandom.split();
+            model.setRandom(modelRandom);
+            model.generate(allowMatches);
+        }
+        recentBoards[nextRecentBoard] = model.hash();
+        nextRecentBoard = (nextRecentBoard + 1) % RECENT_BOARDS;
+        numRecentBoards = Math.min(numRecentBoards + 1, RECENT_BOARDS);
+        replay = new Replay(modelRandom.getSeed(), NUM_OF_SQUARES_X, NUM_OF_SQUARES_Y,
+                            NUM_OF_TYPES, Settings.BONUS_PROB, allowMatches);
+        if (squares.length < NUM_OF_SQUARES_X || squares[0].length < NUM_OF_SQUARES_Y) {
+            int columns = Math.max(NUM_OF_SQUARES_X, squares.length);
+            int rows = Math.max(NUM_OF_SQUARES_Y, squares.length == 0 ? 0 : squares[0].length);
+            squares = new Square[columns][rows];
+            pos = new Vector2[columns][rows];
+        }
 
         //preloads elements to be used
         GlobalPools.preloadPools(NUM_OF_SQUARES_X * NUM_OF_SQUARES_Y);
 
+        world.invalidateStaticLayers();
         startGame();
         start();
-
     }
 
-    private void startGame() {
-        for (int x = 0; x < higherNUM; ++x) {
-            for (int y = 0; y < higherNUM; ++y) {
-                columns[x][y] = new Match();
-                rows[x][y] = new Match();
-
+    //stops everything the old game left running and gives its squares back to the pool
+    private void clear() {
+        world.scheduler.cancelAll(autoSolveTask);
+        world.scheduler.cancelAll(playbackTask);
+        if (search != null) search.get();
+        search = null;
+        lastSolve = null;
+        world.tweens.killAll(this);
+        for (int i = 0; i < model.getWidth(); i++) {
+            for (int j = 0; j < model.getHeight(); j++) {
+                if (squares[i][j] != null && squares[i][j].alive) {
+                    GlobalPools.squarePool.free(squares[i][j]);
+                }
+                squares[i][j] = null;
             }
         }
+        VectorPool.releaseVectors();
+        movingSquares.clear();
+        cascadeEnd = cascadeTime;
+        numBacks = 0;
+    }
 
-
-        for (int x = 0; x < 1000; ++x) {
-            matchCoords[x] = new Coord();
-            solCoords[x] = new Sols();
+    private boolean isRecentBoard(long hash) {
+        for (int i = 0; i < numRecentBoards; i++) {
+            if (recentBoards[i] == hash) return true;
         }
+        return false;
+    }
 
+    private void startGame() {
         generate();
         fillPosArray();
+        findVisibleChunks();
     }
 
     public void generate() {
-        boolean repeat;
         long startTime = System.currentTimeMillis();
 
         //GENERAL CALCULATIONS
@@ -112,31 +210,32 @@ public class Board extends GameObject {
         diffY = (sprite.getHeight() - (NUM_OF_SQUARES_Y * SQUARE_SIZE)
                 - (spaceBetweenSquares * (NUM_OF_SQUARES_Y + 1))) / 2;
 
-        //GENERATING NEW BOARD
-        do {
-            repeat = false;
-            //spaceBetweenSquares = (sprite.getWidth() - ((NUM_OF_SQUARES) * SQUARE_SIZE)) / (NUM_OF_SQUARES + 1);
-            for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
-                for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                    squares[i][j] = createNewSquare(i, j, MathUtils.random(1, NUM_OF_TYPES - 1));
-                }
+        movingSquares.reset(cellX(0), cellY(NUM_OF_SQUARES_Y - 1),
+                            cellX(NUM_OF_SQUARES_X - 1) + SQUARE_SIZE - cellX(0),
+                            cellY(0) + SQUARE_SIZE - cellY(NUM_OF_SQUARES_Y - 1),
+                            SQUARE_SIZE + spaceBetweenSquares);
+
+        //SQUARES OF THE GENERATED BOARD
+        for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
+            for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
+                squares[i][j] = createNewSquare(i, j);
             }
-            if (check().size != 0) repeat = true;
-            else if (solutions().size == 0) repeat = true;
-            if (Settings.RANDOM_BOARD) {repeat = false; }
-        } while (repeat);
+        }
 
         createBacks();
         long stopTime = System.currentTimeMillis();
         long elapsedTime = stopTime - startTime;
-        System.out.println("Time to Generate Board --> " + elapsedTime / 1000.0);
-        timercontrol(1.5f);
+        Gdx.app.debug("Board", "generated in " + elapsedTime / 1000.0 + " s");
+        //the first check waits for the start animation
+        cascade.settle();
     }
 
     private void createBacks() {
+        numBacks = 0;
         for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
             for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                Sprite backSprite = new Sprite(AssetLoader.back);
+                if (numBacks == backs.size()) backs.add(new Sprite(AssetLoader.back));
+                Sprite backSprite = backs.get(numBacks++);
                 backSprite.setAlpha(.5f);
                 backSprite.setSize(Settings.SQUARE_SIZE, Settings.SQUARE_SIZE);
                 backSprite
@@ -144,10 +243,8 @@ public class Board extends GameObject {
                 backSprite.setScale(1.05f);
                 backSprite.setOriginCenter();
                 backSprite.setAlpha(0);
-                Tween.to(backSprite, SpriteAccessor.ALPHA, .5f).delay(.3f).target(.5f)
-                     .start(getManager());
+                animate(Tween.to(backSprite, SpriteAccessor.ALPHA, .5f).delay(.3f).target(.5f));
                 //backSprite.setColor(FlatColors.WHITE);
-                backs.add(backSprite);
             }
         }
     }
@@ -158,181 +255,155 @@ public class Board extends GameObject {
         super.update(delta);
         ninepatch.setColor(sprite.getColor());
 
-        for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
-            for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                squares[i][j].update(delta);
+        movingSquares.clear();
+        findVisibleChunks();
+        //nothing is drawn in logic only mode, the sprites catch up when it ends
+        if (!world.isLogicOnly()) {
+            for (int i = fromColumn; i <= toColumn; i++) {
+                for (int j = fromRow; j <= toRow; j++) {
+                    squares[i][j].update(delta);
+                    if (!isInPlace(squares[i][j], i, j)) movingSquares.add(squares[i][j]);
+                }
             }
         }
+
+        if (search != null && search.isDone()) playSolve();
+        cascadeTime += delta;
+        cascade.update();
+        world.boardBlocked = !cascade.isIdle() || playback != null;
     }
 
     @Override
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
+    public void render(RenderQueue queue, DebugOverlay debug) {
         //super.render(batch, shapeRenderer);
+        if (!queue.isCached(RenderQueue.BACKS)) renderBacks(queue);
+        GridRenderer grid = Configuration.GRID_RENDERER ? world.grid : null;
+        if (grid != null) {
+            grid.resize(NUM_OF_SQUARES_X, NUM_OF_SQUARES_Y, SQUARE_SIZE);
+            grid.setVisible(fromColumn, toColumn, fromRow, toRow);
+        }
+        for (int i = toColumn; i >= fromColumn; i--) {
+            for (int j = toRow; j >= fromRow; j--) {
+                Square square = squares[i][j];
+                if (grid != null && isGridSquare(square)) {
+                    Sprite s = square.getSprite();
+                    grid.set(i, j, s.getX(), s.getY(), s.getScaleX(), s.getColor().a,
+                             square.typeN, square.bonus.ordinal());
+                    if (Configuration.DEBUG) {
+                        debug.rect(s.getX(), s.getY(), SQUARE_SIZE, SQUARE_SIZE,
+                                   FlatColors.WHITE);
+                    }
+                } else {
+                    if (grid != null) grid.hide(i, j);
+                    square.render(queue, debug);
+                }
+            }
+        }
+        if (grid != null) grid.draw(queue, RenderQueue.PIECES);
+        if (Configuration.DEBUG) renderDebug(debug);
+    }
+
+    //the frame and the backs, they only change when the world reports it
+    private void renderBacks(RenderQueue queue) {
         if (sprite.getScaleX() != 1) {
             float width = sprite.getWidth() * sprite.getScaleX();
             float height = sprite.getHeight() * sprite.getScaleY();
             float xn = world.gameWidth / 2 - width / 2;
             float yn = world.gameHeight / 2 - height / 2;
-            ninepatch.draw(batch, xn, yn, width, height);
-        } else ninepatch.draw(batch, sprite.getX(), sprite.getY(),
-                              sprite.getWidth(), sprite.getHeight());
-
-        for (int i = 0; i < backs.size(); i++) {
-            backs.get(i).draw(batch);
+            queue.draw(RenderQueue.BOARD, ninepatch, xn, yn, width, height);
+        } else queue.draw(RenderQueue.BOARD, ninepatch, sprite.getX(), sprite.getY(),
+                          sprite.getWidth(), sprite.getHeight());
+
+        //backs were created column by column
+        for (int i = fromColumn; i <= toColumn; i++) {
+            for (int j = fromRow; j <= toRow; j++) {
+                queue.draw(RenderQueue.BACKS, backs.get(i * NUM_OF_SQUARES_Y + j));
+            }
         }
-        for (int i = NUM_OF_SQUARES_X - 1; i >= 0; i--) {
-            for (int j = NUM_OF_SQUARES_Y - 1; j >= 0; j--) {
-                squares[i][j].render(batch, shapeRenderer);
+    }
+
+    //current matches and every valid move of the model
+    private void renderDebug(DebugOverlay debug) {
+        float half = SQUARE_SIZE / 2;
+        Matches matches = model.check();
+        for (int m = 0; m < matches.size(); m++) {
+            for (int c = 0; c < matches.length(m); c++) {
+                Vector2 p = squares[matches.x(m, c)][matches.y(m, c)].getPosition();
+                debug.rect(p.x + 4, p.y + 4, SQUARE_SIZE - 8, SQUARE_SIZE - 8, FlatColors.RED);
             }
         }
+        Moves sols = model.solutions();
+        for (int i = 0; i < sols.size(); i++) {
+            Vector2 from = squares[sols.x(i)][sols.y(i)].getPosition();
+            Vector2 to = squares[sols.toX(i)][sols.toY(i)].getPosition();
+            debug.arrow(from.x + half, from.y + half, (from.x + to.x) / 2 + half,
+                        (from.y + to.y) / 2 + half, FlatColors.YELLOW);
+        }
+        if (lastSolve != null && cascade.isIdle()) {
+            Vector2 from = squares[lastSolve.x1][lastSolve.y1].getPosition();
+            Vector2 to = squares[lastSolve.x2][lastSolve.y2].getPosition();
+            debug.arrow(from.x + half, from.y + half, to.x + half, to.y + half,
+                        FlatColors.GREEN);
+        }
     }
 
     public void start() {
+        if (world.isLogicOnly()) return;
         fadeIn(.2f, .1f);
         scale(0.8f, 1, .2f, .2f);
+        //the wave takes as long on a marathon board as on the 7x7 one
+        float step = 0.015f * Math.min(1, 36f / Math.max(1,
+                (NUM_OF_SQUARES_X - 1) * (NUM_OF_SQUARES_Y - 1)));
         for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
             for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                squares[i][j].start(((i * j) * 0.015f) + .5f);
+                waitFor(squares[i][j].start(((i * j) * step) + .5f));
             }
         }
     }
 
-    public MultipleMatch check() {
-        int k;
-        matches.clear();
-        int currCoord = 0;
-        for (int y = 0; y < NUM_OF_SQUARES_Y; ++y) {
-            for (int x = 0; x < NUM_OF_SQUARES_X - 2; ++x) {
-                Match currentRow = rows[y][x];
-                currentRow.clear();
-                matchCoords[currCoord].x = x;
-                matchCoords[currCoord].y = y;
-                currentRow.add(matchCoords[currCoord]);
-                ++currCoord;
-                for (k = x + 1; k < NUM_OF_SQUARES_X; ++k) {
-                    if (squares[x][y].type == squares[k][y].type && squares[x][y].type != Square.Type.EMPTY) {
-                        matchCoords[currCoord].x = k;
-                        matchCoords[currCoord].y = y;
-                        currentRow.add(matchCoords[currCoord]);
-                        ++currCoord;
-                    } else {
-                        break;
-                    }
-                }
-                if (currentRow.size > 2) {
-                    matches.add(currentRow);
-                }
-                x = k - 1;
-            }
-        }
-
-        for (int x = 0; x < NUM_OF_SQUARES_X; ++x) {
-            for (int y = 0; y < NUM_OF_SQUARES_Y - 2; ++y) {
-                Match currentColumn = columns[x][y];
-                currentColumn.clear();
-                matchCoords[currCoord].x = x;
-                matchCoords[currCoord].y = y;
-                currentColumn.add(matchCoords[currCoord]);
-                ++currCoord;
-
-                for (k = y + 1; k < NUM_OF_SQUARES_Y; ++k) {
-                    if (squares[x][y].type == squares[x][k].type &&
-                            squares[x][y].type != (Square.Type.EMPTY)) {
-                        matchCoords[currCoord].x = x;
-                        matchCoords[currCoord].y = k;
-                        currentColumn.add(matchCoords[currCoord]);
-                        ++currCoord;
-                    } else {
-                        break;
-                    }
-                }
-                if (currentColumn.size > 2) {
-                    matches.add(currentColumn);
-                }
-                y = k - 1;
-            }
-        }
-
-        return matches;
+    public Matches check() {
+        return model.check();
     }
 
-    public Array<Sols> solutions() {
-        results.clear();
-        int currCoord = 0;
-
-        if (check().size != 0) {
-            solCoords[currCoord].x = -1;
-            solCoords[currCoord].y = -1;
-            solCoords[currCoord].d = -1;
-            results.add(solCoords[currCoord]);
-            ++currCoord;
-            return results;
-        }
-
-        for (int x = 0; x < NUM_OF_SQUARES_X; ++x) {
-            for (int y = 0; y < NUM_OF_SQUARES_Y; ++y) {
-
-                // Swap with the one above and check
-                if (y > 0) {
-                    swap(x, y, x, y - 1);
-                    if (check().size != 0) {
-                        solCoords[currCoord].x = x;
-                        solCoords[currCoord].y = y;
-                        solCoords[currCoord].d = 0;
-                        results.add(solCoords[currCoord]);
-                        ++currCoord;
-                    }
-
-                    swap(x, y, x, y - 1);
-                }
-
-                // Swap with the one below and check
-                if (y < NUM_OF_SQUARES_Y - 1) {
-                    swap(x, y, x, y + 1);
-                    if (check().size != 0) {
-                        solCoords[currCoord].x = x;
-                        solCoords[currCoord].y = y;
-                        solCoords[currCoord].d = 2;
-                        results.add(solCoords[currCoord]);
-                        ++currCoord;
-                    }
-
-                    swap(x, y, x, y + 1);
-                }
+    public Moves solutions() {
+        return model.solutions();
+    }
 
-                // Swap with the one on the left and check
-                if (x > 0) {
-                    swap(x, y, x - 1, y);
-                    if (check().size != 0) {
-                        solCoords[currCoord].x = x;
-                        solCoords[currCoord].y = y;
-                        solCoords[currCoord].d = 1;
-                        results.add(solCoords[currCoord]);
-                        ++currCoord;
-                    }
+    /**
+     * Zobrist hash of the jewels and bonuses, a cheap identity of the board state.
+     */
+    public long hash() {
+        return model.hash();
+    }
 
-                    swap(x, y, x - 1, y);
-                }
+    /**
+     * Deadlock check, true while there is a match on the board or a swap that makes one.
+     */
+    public boolean hasMoves() {
+        return model.hasMoves();
+    }
 
-                // Swap with the one on the right and check
-                if (x < NUM_OF_SQUARES_X - 1) {
-                    swap(x, y, x + 1, y);
-                    if (check().size != 0) {
-                        solCoords[currCoord].x = x;
-                        solCoords[currCoord].y = y;
-                        solCoords[currCoord].d = 3;
-                        results.add(solCoords[currCoord]);
-                        ++currCoord;
-                    }
+    /**
+     * Starts a move: swaps two jewels in the model and animates their squares. The cascade
+     * swaps them back if the move makes no match. Returns false while the board is busy.
+     */
+    public boolean trySwap(int x1, int y1, int x2, int y2) {
+        if (!cascade.swap(x1, y1, x2, y2)) return false;
+        //a swap without a match is undone and leaves the board as it was
+        if (model.hasMatch()) replay.addSwap(x1, y1, x2, y2);
+        swapAnimated(x1, y1, x2, y2);
+        return true;
+    }
 
-                    swap(x, y, x + 1, y);
-                }
-            }
-        }
-        return results;
+    private void swapAnimated(int x1, int y1, int x2, int y2) {
+        if (world.isLogicOnly()) {
+            squares[x1][y1].getPosition().set(cellX(x2), cellY(y2));
+            squares[x2][y2].getPosition().set(cellX(x1), cellY(y1));
+        } else waitFor(squares[x1][y1].swapXandY(squares, x1, y1, x2, y2));
+        swapSquares(x1, y1, x2, y2);
     }
 
-    public void swap(int x1, int y1, int x2, int y2) {
+    private void swapSquares(int x1, int y1, int x2, int y2) {
         Square temp = squares[x1][y1];
         squares[x1][y1] = squares[x2][y2];
         squares[x2][y2] = temp;
@@ -341,301 +412,160 @@ public class Board extends GameObject {
         squares[x1][y1].setCoord(x1, y1);
     }
 
-    public void swapWithoutCoords(int x1, int y1, int x2, int y2) {
-        Square temp = squares[x1][y1];
-        squares[x1][y1] = squares[x2][y2];
-        squares[x2][y2] = temp;
-    }
-
-    private void swapCoords(int x1, int y1, int x2, int y2) {
-        squares[x1][y1].setCoord(x2, y2);
-        squares[x2][y2].setCoord(x1, y1);
+    //MODEL EVENTS
+    @Override
+    public void onClear(int x, int y) {
+        //logic only mode keeps the state of the square and skips its effects
+        if (world.isLogicOnly()) squares[x][y].setType(-1);
+        else waitFor(squares[x][y].dissapear());
     }
 
-    public void control() {
-        world.boardBlocked = true;
-        if (check().size != 0) {
-            MultipleMatch matches = check();
-            for (int i = 0; i < matches.size; i++) {
-                Match match = matches.get(i);
-                if (matchHasBonus(match)) {
-                    dissapearMatchWithBonus(match);
+    @Override
+    public void onBonus(int x, int y, int bonus, boolean horizontal) {
+        if (world.isLogicOnly()) return;
+        Sprite cSprite = squares[x][y].getSprite();
+        switch (bonus) {
+            case BoardModel.RAY:
+                rayTypeNum = squares[x][y].typeN > 1 ? squares[x][y].typeN : 1;
+                world.animRay.changeRegion(AssetLoader.rays.get(rayTypeNum - 1));
+                world.animRay.sprite.setOriginCenter();
+                if (horizontal) {
+                    world.animRay.sprite.setRotation(world.random.nextBoolean() ? 90 + 180 : 90);
+                    world.animRay.setSprite(world.gameWidth / 2,
+                                            cSprite.getY() + cSprite.getWidth() / 2,
+                                            (int) getSprite().getWidth() - 20,
+                                            (int) getSprite().getWidth() + 20);
                 } else {
-                    for (int j = 0; j < match.size; j++) {
-                        Coord c = match.get(j);
-                        squares[c.x][c.y].dissapear();
-                    }
+                    world.animRay.sprite.setRotation(world.random.nextBoolean() ? 0 : 180);
+                    world.animRay.setSprite(cSprite.getX() + cSprite.getWidth() / 2,
+                                            world.gameHeight / 2,
+                                            (int) getSprite().getHeight() - 20,
+                                            (int) getSprite().getHeight() + 20);
                 }
-            }
-            timerToControl();
-        } else {
-            if (solutions().size == 0) {
-                destroyAll();
-            } else {
-                world.boardBlocked = false;
-                if (Configuration.AUTOSOLVE) autoSolve();
-            }
-
-
-        }
-    }
-
-    public void dissapearOneLine(int x, int y, boolean isHorizontal) {
-        rayTypeNum = squares[x][y].typeN > 1 ? squares[x][y].typeN : 1;
-        world.animRay.changeRegion(AssetLoader.rays.get(rayTypeNum - 1));
-        if (isHorizontal) {
-            for (int w = 0; w < NUM_OF_SQUARES_X; w++) {
-                if (squares[w][y].bonus != Square.Bonus.NORMAL) squares[w][y].dissapear();
-                else squares[w][y].dissapearWithBonus(true);
-            }
-        } else {
-            for (int w = 0; w < NUM_OF_SQUARES_Y; w++) {
-                if (squares[x][w].bonus != Square.Bonus.NORMAL) squares[x][w].dissapear();
-                else squares[x][w].dissapearWithBonus(false);
-            }
+                world.animRay.start(.2f, .1f, 1);
+                break;
+            case BoardModel.BOMB:
+                bombTypeNum = squares[x][y].typeN > 1 ? squares[x][y].typeN : 1;
+                world.animBomb.changeRegion(AssetLoader.explosion.get(bombTypeNum - 1));
+                world.animBomb.sprite.setRotation(world.random.nextInt(0, 360));
+                world.animBomb.sprite.setOriginCenter();
+                world.animBomb.setSprite(cSprite.getX() + cSprite.getWidth() / 2,
+                                         cSprite.getY() + cSprite.getWidth() / 2, 350, 350);
+                world.animBomb.start(.03f, .02f, 1);
+                break;
         }
     }
 
-    public void dissapearBomb(int x, int y) {
-        bombTypeNum = squares[x][y].typeN > 1 ? squares[x][y].typeN : 1;
-        world.animBomb.changeRegion(AssetLoader.explosion.get(bombTypeNum - 1));
-        for (int w = x - 1; w <= x + 1; w++) {
-            for (int l = y - 1; l <= y + 1; l++) {
-                if (coordExists(w, l))
-                    if (squares[w][l].bonus != Square.Bonus.NORMAL) squares[w][l].dissapear();
-                    else squares[w][l].dissapearWithBonus(false);
-            }
-        }
-    }
-
-    public void dissapearBitcoin(int x, int y) {
-        Square.Type type = squares[x][y].type;
-        for (int w = 0; w < NUM_OF_SQUARES_X; w++) {
-            for (int l = 0; l < NUM_OF_SQUARES_Y; l++) {
-                if (squares[w][l].type == type)
-                    if (squares[w][l].bonus != Square.Bonus.NORMAL) squares[w][l].dissapear();
-                    else squares[w][l].dissapearWithBonus(false);
-            }
-        }
+    @Override
+    public void onFall(int x, int fromY, int toY) {
+        Square cSquare = squares[x][fromY];
+        cSquare.emptyB = toY - fromY;
+        cSquare.diffY = (toY - fromY) * (SQUARE_SIZE + spaceBetweenSquares);
+        if (world.isLogicOnly()) cSquare.getPosition().y -= cSquare.diffY;
+        else fall(cSquare, fromY);
     }
 
-
-    private void dissapearMatchWithBonus(Match match) {
-        for (int j = 0; j < match.size; j++) {
-            Coord c = match.get(j);
-            switch (squares[c.x][c.y].bonus) {
-                case BITCOIN:
-                    dissapearBitcoin(c.x, c.y);
-                    break;
-                case RAY:
-                    dissapearOneLine(c.x, c.y, match.isHorizontal());
-                    if (match.isHorizontal()) {
-                        world.animRay.sprite.setOriginCenter();
-                        world.animRay.sprite.setRotation(Math.random() < 0.5f ? 90 + 180 : 90);
-                        world.animRay
-                                .setSprite(
-                                        world.gameWidth / 2,
-                                        squares[c.x][c.y].getSprite().getY() + squares[c.x][c.y]
-                                                .getSprite().getWidth() / 2,
-                                        (int) world.board.getSprite().getWidth() - 20,
-                                        (int) world.board.getSprite().getWidth() + 20);
-                    } else {
-                        world.animRay.sprite.setOriginCenter();
-                        world.animRay.sprite.setRotation(Math.random() < 0.5f ? 0 : 180);
-                        world.animRay
-                                .setSprite(squares[c.x][c.y].getSprite().getX() +
-                                                   squares[c.x][c.y].getSprite().getWidth() / 2,
-                                           world.gameHeight / 2,
-                                           (int) world.board.getSprite().getHeight() - 20,
-                                           (int) world.board.getSprite().getHeight() + 20);
-                    }
-                    world.animRay.start(.2f, .1f, 1);
-                    break;
-                case BOMB:
-                    dissapearBomb(c.x, c.y);
-                    world.animBomb.sprite.setRotation(MathUtils.random(0, 360));
-                    world.animBomb.sprite.setOriginCenter();
-                    world.animBomb.setSprite(
-                            squares[c.x][c.y].getSprite().getX() +
-                                    squares[c.x][c.y].getSprite().getWidth() / 2,
-                            squares[c.x][c.y].getSprite().getY() + squares[c.x][c.y]
-                                    .getSprite().getWidth() / 2, 350, 350);
-                    world.animBomb.start(.03f, .02f, 1);
-                    break;
-                default:
-                    squares[c.x][c.y].dissapear();
-                    break;
-            }
+    @Override
+    public void onSpawn(int x, int y) {
+        Square cSquare = squares[x][y];
+        if (cSquare.alive) {
+            GlobalPools.squarePool.free(cSquare);
         }
-
-    }
-
-    private boolean coordExists(int w, int l) {
-        if (w >= 0 && w < NUM_OF_SQUARES_X && l >= 0 && l < NUM_OF_SQUARES_Y) return true;
-        else return false;
-    }
-
-    private boolean matchHasBonus(Match match) {
-        for (int j = 0; j < match.size; j++) {
-            Coord c = match.get(j);
-            if (squares[c.x][c.y].bonus != Square.Bonus.NORMAL) {
-                return true;
-            }
+        squares[x][y] = createNewSquare(x, y);
+        if (!world.isLogicOnly()) {
+            waitFor(squares[x][y].fallingEffect(pos[x][y], delay(y) * 2f));
         }
-        return false;
     }
 
-    private void timercontrol(float delay) {
-        world.boardBlocked = true;
-        Value timer = new Value();
-        Tween.to(timer, -1, delay).setCallbackTriggers(TweenCallback.COMPLETE).setCallback(
-                new TweenCallback() {
-                    @Override
-                    public void onEvent(int type, BaseTween<?> source) {
-                        control();
-                    }
-                }).start(getManager());
-    }
-
-
-    private void timerToControl() {
-        world.boardBlocked = true;
-        Value timer = new Value();
-        Tween.to(timer, -1, .1f).setCallbackTriggers(TweenCallback.COMPLETE).setCallback(
-                new TweenCallback() {
-                    @Override
-                    public void onEvent(int type, BaseTween<?> source) {
-                        controlBucle();
-                    }
-                }).start(getManager());
+    //CASCADE EVENTS
+    @Override
+    public boolean isAnimating(Cascade.State state) {
+        //the fall starts while the cleared jewels are still vanishing, like it always did
+        if (state == Cascade.State.CLEARING) return false;
+        //tweens add up their time in floats, the slack makes sure they have ended
+        return cascadeTime < cascadeEnd + .001;
     }
 
-    public void controlBucle() {
-        world.board.calculateEmptyBelow();
-        world.board.calculateEmptyAbove();
-        world.board.calculateDiffBelow();
-        world.board.fall();
-        world.board.refreshCR();
+    //the cascade waits seconds more, for an animation it started. Other square tweens, like
+    //the selection, do not hold it
+    private void waitFor(float seconds) {
+        cascadeEnd = Math.max(cascadeEnd, cascadeTime + seconds);
     }
 
-    public void calculateEmptyBelow() {
-        for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
-            for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                Square cSquare = squares[i][j];
-                cSquare.emptyB = 0;
-                if (cSquare.type != Square.Type.EMPTY)
-                    for (int l = j + 1; l < NUM_OF_SQUARES_Y; l++) {
-                        if (squares[i][l].type == Square.Type.EMPTY) {
-                            cSquare.emptyB++;
-                        }
-                    }
-            }
-        }
+    @Override
+    public void onCleared(int count) {
+        world.addScore(count);
     }
 
-    public void calculateEmptyAbove() {
+    @Override
+    public void onRefill() {
+        VectorPool.releaseVectors();
+        fillPosArray();
         for (int i = NUM_OF_SQUARES_X - 1; i >= 0; i--) {
-            for (int j = NUM_OF_SQUARES_Y - 1; j >= 1; j--) {
+            for (int j = NUM_OF_SQUARES_Y - 1; j >= 0; j--) {
                 Square cSquare = squares[i][j];
-                if (cSquare.type == Square.Type.EMPTY) {
-                    cSquare.emptyB = 0;
-                    for (int l = j - 1; l >= 0; l--) {
-                        if (squares[i][l].type != Square.Type.EMPTY) {
-                            cSquare.emptyB--;
-                        }
-                    }
+                if (cSquare.emptyB > 0) {
+                    swapSquares(i, j, i, j + cSquare.emptyB);
                 }
             }
         }
-    }
-
-    public void calculateDiffBelow() {
         for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
             for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                Square cSquare = squares[i][j];
-                cSquare.diffY = 0;
-                if (cSquare.emptyB != 0) {
-                    Square iSquare = squares[i][j + cSquare.emptyB];
-                    cSquare.diffY = cSquare.getPosition().y - iSquare.getPosition().y;
-                }
+                squares[i][j].emptyB = 0;
+                squares[i][j].diffY = 0;
             }
         }
+        //Squares left EMPTY on top are replaced through onSpawn once the model refills
+    }
+
+    @Override
+    public void onSwapRejected(int x1, int y1, int x2, int y2) {
+        swapAnimated(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void onIdle() {
+        if (playback != null) world.scheduler.schedule(.15f, playbackTask);
+        else if (Configuration.AUTOSOLVE) autoSolve();
     }
 
+    /**
+     * Replays the fall of the squares that still have one pending.
+     */
     public void fall() {
         for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
             for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                Square cSquare = squares[i][j];
-                if (cSquare.diffY != 0) {
-                    cSquare.effectY(cSquare.getPosition().y,
-                                    cSquare.getPosition().y - cSquare.diffY, .3f,
-                                    delays.get(j) * 2.5f);
-                }
+                if (squares[i][j].diffY != 0) fall(squares[i][j], j);
             }
         }
     }
 
-    public void refreshCR() {
-        Value timer = new Value();
-        Tween.to(timer, -1, .35f).setCallbackTriggers(TweenCallback.COMPLETE).setCallback(
-                new TweenCallback() {
-                    @Override
-                    public void onEvent(int type, BaseTween<?> source) {
-                        VectorPool.releaseVectors();
-                        fillPosArray();
-                        for (int i = NUM_OF_SQUARES_X - 1; i >= 0; i--) {
-                            for (int j = NUM_OF_SQUARES_Y - 1; j >= 0; j--) {
-                                Square cSquare = squares[i][j];
-                                if (cSquare.emptyB >= 0) {
-                                    cSquare.row = j + cSquare.emptyB;
-                                    swap(i, j, i, cSquare.row);
-                                }
-                            }
-                        }
-
-                        for (int i = NUM_OF_SQUARES_X - 1; i >= 0; i--) {
-                            for (int j = NUM_OF_SQUARES_Y - 1; j >= 0; j--) {
-                                Square cSquare = squares[i][j];
-                                if (cSquare.type == Square.Type.EMPTY) {
-                                    //Trigger clears
-                                    if (cSquare.alive) {
-                                        GlobalPools.squarePool.free(cSquare);
-                                    }
-                                    squares[i][j] = createNewSquare(i, j, MathUtils.random(1,
-                                            NUM_OF_TYPES - 1));
-                                    //Gdx.app.log("Delay", String.valueOf(delays.get(j) * 2));
-                                    squares[i][j].fallingEffect(pos[i][j], delays.get(j) * 2f);
-                                }
-                            }
-                        }
-
-                        world.boardBlocked = false;
-                        timercontrol(.6f);
-                    }
-
-                }).start(getManager());
-
+    private void fall(Square cSquare, int j) {
+        cSquare.effectY(cSquare.getPosition().y, cSquare.getPosition().y - cSquare.diffY, .3f,
+                        delay(j) * 2.5f);
+        waitFor(.3f + delay(j) * 2.5f);
     }
 
 
-    private Square createNewSquare(int i, int j, int type) {
+    private Square createNewSquare(int i, int j) {
 
         //Gdx.app.log("create: ", i + " " + j);
-        float squareX = sprite.getX()
-                + ((i + 1) * spaceBetweenSquares) + (i * SQUARE_SIZE) + diffX;
-        float squareY = sprite.getY() + sprite.getHeight() -
-                ((j + 1) * spaceBetweenSquares) - (j * SQUARE_SIZE) - SQUARE_SIZE - diffY;
+        float squareX = cellX(i);
+        float squareY = cellY(j);
         //return new Square(world, squareX, squareY, SQUARE_SIZE, SQUARE_SIZE,
         //                  AssetLoader.square, FlatColors.WHITE, Shape.RECTANGLE, i, j, type);
         return addSquare(world, squareX, squareY, SQUARE_SIZE, SQUARE_SIZE,
-                AssetLoader.square, FlatColors.WHITE, Shape.RECTANGLE, i, j, type);
+                AssetLoader.square, FlatColors.WHITE, Shape.RECTANGLE, i, j,
+                model.getType(i, j), model.getBonus(i, j));
     }
 
 
     private Square addSquare(GameWorld world, float x, float y, float width, float height,
-                           TextureRegion texture, Color color, Shape shape, int column, int row, int typeN){
+                           TextureRegion texture, Color color, Shape shape, int column, int row,
+                           int typeN, int bonusN){
         Square square = GlobalPools.squarePool.obtain();
-        square.init(world, x, y, width, height, texture, color, shape, column, row, typeN);
+        square.init(world, x, y, width, height, texture, color, shape, column, row, typeN,
+                    bonusN);
         //Square.activeSquareList.add(square);
         return square;
     }
@@ -644,10 +574,8 @@ public class Board extends GameObject {
     public void fillPosArray() {
         for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
             for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                float squareX = sprite
-                        .getX() + ((i + 1) * spaceBetweenSquares) + (i * SQUARE_SIZE) + diffX;
-                float squareY = sprite.getY() + sprite.getHeight() -
-                        ((j + 1) * spaceBetweenSquares) - (j * SQUARE_SIZE) - SQUARE_SIZE - diffY;
+                float squareX = cellX(i);
+                float squareY = cellY(j);
                 //pos[i][j] = new Vector2(squareX, squareY);
                 Vector2 v = VectorPool.vectorPool.obtain();
                 VectorPool.init(v, squareX, squareY);
@@ -657,39 +585,137 @@ public class Board extends GameObject {
     }
 
 
+    //resting and moving jewels go to the grid renderer, selected, flashing and vanishing ones
+    //keep their sprites
+    private boolean isGridSquare(Square square) {
+        return square.type != Square.Type.EMPTY && !square.isSelected
+                && square.getFlashSprite().getColor().a == 0;
+    }
+
+    //cells of the chunks the camera sees, plus one chunk around them for the squares that
+    //swap or fall across a chunk border. Squares falling from further away pop in when they
+    //land
+    private void findVisibleChunks() {
+        Rectangle view = world.camera.getBounds();
+        float step = SQUARE_SIZE + spaceBetweenSquares;
+        int left = (int) Math.floor((view.x - cellX(0)) / step);
+        int right = (int) Math.floor((view.x + view.width - cellX(0)) / step);
+        int top = (int) Math.floor((cellY(0) + SQUARE_SIZE - view.y - view.height) / step);
+        int bottom = (int) Math.floor((cellY(0) + SQUARE_SIZE - view.y) / step);
+        fromColumn = chunkStart(left, NUM_OF_SQUARES_X);
+        toColumn = chunkEnd(right, NUM_OF_SQUARES_X);
+        fromRow = chunkStart(top, NUM_OF_SQUARES_Y);
+        toRow = chunkEnd(bottom, NUM_OF_SQUARES_Y);
+    }
+
+    private static int chunkStart(int cell, int cells) {
+        int chunk = MathUtils.clamp(cell, 0, cells - 1) / CHUNK_SIZE;
+        return Math.max(0, (chunk - 1) * CHUNK_SIZE);
+    }
+
+    private static int chunkEnd(int cell, int cells) {
+        int chunk = MathUtils.clamp(cell, 0, cells - 1) / CHUNK_SIZE;
+        return Math.min(cells - 1, (chunk + 2) * CHUNK_SIZE - 1);
+    }
+
+    //rows past the delay table fall with the last delay
+    private float delay(int row) {
+        return delays.get(Math.min(row, delays.size - 1));
+    }
+
+    //CELL GEOMETRY
+    public float cellX(int i) {
+        return sprite.getX() + ((i + 1) * spaceBetweenSquares) + (i * SQUARE_SIZE) + diffX;
+    }
+
+    public float cellY(int j) {
+        return sprite.getY() + sprite.getHeight() -
+                ((j + 1) * spaceBetweenSquares) - (j * SQUARE_SIZE) - SQUARE_SIZE - diffY;
+    }
+
+    /**
+     * Column under x, or -1 when x is outside the board or in the space between two cells.
+     */
+    public int columnAt(float x) {
+        float local = x - cellX(0);
+        if (local < 0) return -1;
+        int i = (int) (local / (SQUARE_SIZE + spaceBetweenSquares));
+        if (i >= NUM_OF_SQUARES_X || local - i * (SQUARE_SIZE + spaceBetweenSquares) > SQUARE_SIZE)
+            return -1;
+        return i;
+    }
+
+    /**
+     * Row under y, or -1. Row 0 is the top one.
+     */
+    public int rowAt(float y) {
+        float local = cellY(0) + SQUARE_SIZE - y;
+        if (local < 0) return -1;
+        int j = (int) (local / (SQUARE_SIZE + spaceBetweenSquares));
+        if (j >= NUM_OF_SQUARES_Y || local - j * (SQUARE_SIZE + spaceBetweenSquares) > SQUARE_SIZE)
+            return -1;
+        return j;
+    }
+
+    private boolean isInPlace(Square square, int i, int j) {
+        return Math.abs(square.getPosition().x - cellX(i)) < 0.5f
+                && Math.abs(square.getPosition().y - cellY(j)) < 0.5f;
+    }
+
+    /**
+     * Square under the point, found from the board geometry. Squares that are moving are
+     * looked up in a grid rebuilt on every update.
+     */
+    public Square squareAt(float x, float y) {
+        int i = columnAt(x), j = rowAt(y);
+        if (i >= 0 && j >= 0) {
+            Square square = squares[i][j];
+            if (isInPlace(square, i, j) && square.getRectangle().contains(x, y)) return square;
+        }
+        return movingSquares.find(x, y);
+    }
+
     public void autoSolve() {
-        Value timer = new Value();
-        Tween.to(timer, -1, .15f).setCallbackTriggers(TweenCallback.COMPLETE).setCallback(
-                new TweenCallback() {
-                    @Override
-                    public void onEvent(int type, BaseTween<?> source) {
-                        Array<Sols> sols = world.board.solutions();
-                        Sols c = sols.get(MathUtils.random(0, sols.size - 1));
-                        switch (c.d) {
-                            case 0:
-                                squares[c.x][c.y].slideDown();
-                                break;
-                            case 1:
-                                squares[c.x][c.y].slideLeft();
-                                break;
-                            case 2:
-                                squares[c.x][c.y].slideUp();
-                                break;
-                            case 3:
-                                squares[c.x][c.y].slideRight();
-                                break;
-                        }
-                    }
-                }).start(getManager());
+        world.scheduler.schedule(.15f, autoSolveTask);
+    }
 
+    //scores the moves on the solver threads, update() plays the best one when it is done
+    private void startSolve() {
+        if (!cascade.isIdle() || search != null) return;
+        if (solver == null) solver = new MoveSolver();
+        search = solver.start(model, moveRandom.nextLong(), Configuration.SOLVER_BUDGET_MS);
     }
 
-    public void destroyAll() {
-        for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
-            for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                squares[i][j].dissapear();
-            }
+    private void playSolve() {
+        lastSolve = search.get();
+        search = null;
+        if (cascade.isIdle()) trySwap(lastSolve.x1, lastSolve.y1, lastSolve.x2, lastSolve.y2);
+    }
+
+    /**
+     * The move the solver played or would play last, with its expected score, or null.
+     */
+    public MoveSolver.Result getLastSolve() {
+        return lastSolve;
+    }
+
+    private void playNextMove() {
+        if (!cascade.isIdle()) return;
+        if (!playback.next()) {
+            Gdx.app.log("Replay", "finished, " + replay.getMoveCount() + " moves, score "
+                    + world.score);
+            playback = null;
+            return;
         }
-        timerToControl();
+        if (playback.shuffle) destroyAll();
+        else trySwap(playback.x1, playback.y1, playback.x2, playback.y2);
+    }
+
+    public boolean isPlayingBack() {
+        return playback != null;
+    }
+
+    public void destroyAll() {
+        if (cascade.shuffle()) replay.addShuffle();
     }
 }
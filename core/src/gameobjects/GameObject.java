@@ -5,16 +5,16 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Circle;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
 import aurelienribon.tweenengine.Tween;
 import aurelienribon.tweenengine.TweenEquations;
-import aurelienribon.tweenengine.TweenManager;
 import configuration.Configuration;
+import gameworld.DebugOverlay;
 import gameworld.GameWorld;
+import gameworld.RenderQueue;
 import helpers.FlatColors;
 import helpers.GlobalPools;
 import tweens.SpriteAccessor;
@@ -30,8 +30,9 @@ public class GameObject {
     private Sprite flashSprite;
     public Color color;
     public boolean isPressed = false;
-    private TweenManager manager;
     public boolean isButton = false;
+    //RenderQueue layer of the sprite
+    private int layer = RenderQueue.PIECES;
 
 
     public enum Shape {RECTANGLE, CIRCLE}
@@ -45,11 +46,6 @@ public class GameObject {
 
         sprite = new Sprite();
         flashSprite = new Sprite();
-
-        //TWEEN STUFF
-        Tween.registerAccessor(Sprite.class, new SpriteAccessor());
-        Tween.registerAccessor(Vector2.class, new VectorAccessor());
-        manager = new TweenManager();
     }
 
     public GameObject(final GameWorld world, float x, float y, float width, float height,
@@ -72,11 +68,6 @@ public class GameObject {
         flashSprite = new Sprite();
         initSprites(width, height, texture);
 
-        //TWEEN STUFF
-        Tween.registerAccessor(Sprite.class, new SpriteAccessor());
-        Tween.registerAccessor(Vector2.class, new VectorAccessor());
-        manager = new TweenManager();
-
     }
 
     public GameObject(final GameWorld world, float x, float y, float width, float height,
@@ -104,11 +95,6 @@ public class GameObject {
         flashSprite.setPosition(position.x, position.y);
         flashSprite.setSize(width, height);
         flashSprite.setAlpha(0);
-
-        //TWEEN STUFF
-        Tween.registerAccessor(Sprite.class, new SpriteAccessor());
-        Tween.registerAccessor(Vector2.class, new VectorAccessor());
-        manager = new TweenManager();
     }
 
     public void initReset(){
@@ -142,13 +128,14 @@ public class GameObject {
 
     public void initSprites(float width, float height, TextureRegion texture){
         //sprite = new Sprite(texture);
-        sprite.setTexture(texture.getTexture());
+        //the region, not only its texture, textures can be atlas pages
+        sprite.setRegion(texture);
         sprite.setPosition(position.x, position.y);
         sprite.setSize(width, height);
         sprite.setColor(color);
 
         //flashSprite = new Sprite(texture);
-        flashSprite.setTexture(texture.getTexture());
+        flashSprite.setRegion(texture);
         flashSprite.setPosition(position.x, position.y);
         flashSprite.setSize(width, height);
         flashSprite.setAlpha(0);
@@ -159,7 +146,6 @@ public class GameObject {
     }
 
     public void update(float delta) {
-        manager.update(delta);
         velocity.add(acceleration.scl(delta));
         position.add(velocity.scl(delta));
 
@@ -180,7 +166,7 @@ public class GameObject {
         }
     }
 
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
+    public void render(RenderQueue queue, DebugOverlay debug) {
         if (isInside() && sprite.getColor().a != 0) {
             if (isButton)
                 if (isPressed) {
@@ -189,27 +175,29 @@ public class GameObject {
                     getSprite().setAlpha(1f);
                 }
 
-            sprite.draw(batch);
+            queue.draw(layer, sprite);
             if (flashSprite.getColor().a != 0) {
-                flashSprite.draw(batch);
+                queue.draw(layer + 1, flashSprite);
             }
 
             if (Configuration.DEBUG) {
-                batch.end();
-                shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-                shapeRenderer.setColor(FlatColors.WHITE);
-
                 if (shape == Shape.RECTANGLE)
-                    shapeRenderer.rect(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+                    debug.rect(rectangle.x, rectangle.y, rectangle.width, rectangle.height,
+                               FlatColors.WHITE);
                 else if (shape == Shape.CIRCLE)
-                    shapeRenderer.circle(circle.x, circle.y, circle.radius);
-
-                shapeRenderer.end();
-                batch.begin();
+                    debug.circle(circle.x, circle.y, circle.radius, FlatColors.WHITE);
             }
         }
     }
 
+    public int getLayer() {
+        return layer;
+    }
+
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
     //CLICK
     public boolean isTouchDown(int screenX, int screenY) {
         if (rectangle.contains(screenX, screenY)) {
@@ -231,77 +219,86 @@ public class GameObject {
     //EFFECTS
     public void fadeIn(float duration, float delay) {
         sprite.setAlpha(0);
-        Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(1).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(1).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void fadeOutFrom(float from, float duration, float delay) {
         sprite.setAlpha(from);
-        Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(0).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(0).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void fadeInFromTo(float from, float to, float duration, float delay) {
         sprite.setAlpha(from);
-        Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(to).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(to).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void fadeOut(float duration, float delay) {
         sprite.setAlpha(1);
-        Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(0).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.ALPHA, duration).target(0).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void scale(float from, float duration, float delay) {
         sprite.setScale(from);
-        Tween.to(getSprite(), SpriteAccessor.SCALE, duration).target(1).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.SCALE, duration).target(1).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void scale(float from, float to, float duration, float delay) {
         sprite.setScale(from);
-        Tween.to(getSprite(), SpriteAccessor.SCALE, duration).target(to).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.SCALE, duration).target(to).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void scaleZero(float duration, float delay) {
-        Tween.to(getSprite(), SpriteAccessor.SCALE, duration).target(0).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(getSprite(), SpriteAccessor.SCALE, duration).target(0).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void flash(float duration, float delay) {
         flashSprite.setAlpha(1);
-        Tween.to(flashSprite, SpriteAccessor.ALPHA, duration).target(0).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(flashSprite, SpriteAccessor.ALPHA, duration).target(0).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void effectY(float from, float to, float duration, float delay) {
         position.y = from;
-        Tween.to(position, VectorAccessor.VERTICAL, duration).target(to).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(position, VectorAccessor.VERTICAL, duration).target(to).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void effectX(float from, float to, float duration, float delay) {
         position.x = from;
-        Tween.to(position, VectorAccessor.HORIZONTAL, duration).target(to).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(position, VectorAccessor.HORIZONTAL, duration).target(to).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public void effectXY(Vector2 from, Vector2 to, float duration, float delay) {
         position.y = from.y;
-        Tween.to(position, VectorAccessor.VERTICAL, duration).target(to.y).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(position, VectorAccessor.VERTICAL, duration).target(to.y).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
         position.x = from.x;
-        Tween.to(position, VectorAccessor.HORIZONTAL, duration).target(to.x).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(manager);
+        animate(Tween.to(position, VectorAccessor.HORIZONTAL, duration).target(to.x).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
     public boolean isInside() {
-        if (getPosition().x > 0 - getSprite()
-                .getWidth() && getPosition().x < world.gameWidth + getSprite().getWidth()
-                && getPosition().y > 0 - getSprite()
-                .getHeight() && getPosition().y < world.gameHeight + getSprite().getHeight()) {
+        float x = 0, y = 0, width = world.gameWidth, height = world.gameHeight;
+        //world layers scroll with the camera on big boards
+        if (!RenderQueue.isScreenLayer(layer)) {
+            Rectangle view = world.camera.getBounds();
+            x = view.x;
+            y = view.y;
+            width = view.width;
+            height = view.height;
+        }
+        if (getPosition().x > x - getSprite()
+                .getWidth() && getPosition().x < x + width + getSprite().getWidth()
+                && getPosition().y > y - getSprite()
+                .getHeight() && getPosition().y < y + height + getSprite().getHeight()) {
             return true;
         }
         return false;
@@ -340,41 +337,56 @@ public class GameObject {
         sprite.setColor(color);
     }
 
-    public TweenManager getManager() {
-        return manager;
+    /**
+     * Starts a tween on the world scheduler, owned by this object.
+     */
+    public Tween animate(Tween tween) {
+        return world.tweens.start(tween, this);
     }
 
     public TextureRegion getTexture() {
         return texture;
     }
 
+    //the vectors are updated in place, tweens keep targeting the same instances
     public void setVelocity(Vector2 vec) {
-        this.velocity = new Vector2(vec.cpy());
+        this.velocity.set(vec);
     }
 
     public void setVelocity(float x1, float y1) {
-        this.velocity = new Vector2(x1, y1);
+        this.velocity.set(x1, y1);
     }
 
     public void setAcceleration(int i, int i1) {
-        this.acceleration = new Vector2(i, i1);
+        this.acceleration.set(i, i1);
     }
 
     public void setPosition(float x1, float y1) {
-        this.position = new Vector2(x1, y1);
+        this.position.set(x1, y1);
     }
 
     public void setPosition(Vector2 position1) {
-        this.position = new Vector2(position1.cpy());
+        this.position.set(position1);
         this.sprite.setPosition(position.x,position.y);
     }
 
+    /**
+     * Moves and resizes the object, its sprites and its shape.
+     */
+    public void setBounds(float x, float y, float width, float height) {
+        position.set(x, y);
+        sprite.setBounds(x, y, width, height);
+        flashSprite.setBounds(x, y, width, height);
+        if (shape == Shape.RECTANGLE) rectangle.set(x, y, width, height);
+        else if (shape == Shape.CIRCLE) circle.set(x + width / 2, y + width / 2, width / 2);
+    }
+
     public void setScale(float scale) {
         getSprite().setScale(scale);
     }
 
     public void setAcceleration(Vector2 acceleration) {
-        this.acceleration = acceleration;
+        this.acceleration.set(acceleration);
     }
 
     public void setYPosition(float YPosition) {
@@ -2,25 +2,22 @@ package gameobjects;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 
-import aurelienribon.tweenengine.BaseTween;
 import aurelienribon.tweenengine.Tween;
-import aurelienribon.tweenengine.TweenCallback;
 import aurelienribon.tweenengine.TweenEquations;
 import com.badlogic.gdx.utils.Pool.Poolable;
 import configuration.Settings;
+import gameworld.DebugOverlay;
 import gameworld.GameWorld;
+import gameworld.RenderQueue;
 import helpers.AssetLoader;
 import helpers.FlatColors;
+import helpers.GlobalPools;
 import tweens.SpriteAccessor;
-import tweens.Value;
 import tweens.VectorAccessor;
 import ui.Text;
 
@@ -33,25 +30,22 @@ public class Square extends GameObject implements Poolable {
     public float diffY = 0;
     private Sprite bonusSprite, dissEffect;
 
-    private ParticleEffect particleEffect;
+    private PooledEffect particleEffect;
     public boolean isSelected = false;
     public boolean alive = false;
 
     public Bonus bonus;
     public Type type = null;
 
+    //scratch positions for the swaps, effectXY copies them into the tweens right away
+    private static final Vector2 tmpFrom = new Vector2(), tmpTo = new Vector2();
+
     public enum Type {EMPTY, WHITE, RED, PURPLE, ORANGE, GREEN, YELLOW, BLUE}
 
     public enum Bonus {NORMAL, RAY, BOMB, BITCOIN}
 
     public Square() {
         super();
-
-        //PARTICLES
-        //particleEffect = Particles.getExplodeEffect();
-        particleEffect = new ParticleEffect();
-        particleEffect.load(Gdx.files.internal("misc/hit.p"), Gdx.files.internal(""));
-        Gdx.app.log("new Square 1: ", "=====================");
     }
 
     private void bonusAndDiss(float width, float height) {
@@ -73,17 +67,9 @@ public class Square extends GameObject implements Poolable {
         dissEffect.setOriginCenter();
     }
 
-    private void handleBonus() {
-        if (Math.random() < Settings.BONUS_PROB) {
-            //setBonus(MathUtils.random(1, Bonus.values().length - 1));
-            setBonus(MathUtils.random(1, 2));
-        } else {
-            setBonus(0);
-        }
-    }
-
     public void init(GameWorld world, float x, float y, float width, float height,
-                     TextureRegion texture, Color color, Shape shape, int column, int row, int typeN) {
+                     TextureRegion texture, Color color, Shape shape, int column, int row, int typeN,
+                     int bonusN) {
 
         //Gdx.app.log("col/row: ", column + " " + row);
 
@@ -95,6 +81,8 @@ public class Square extends GameObject implements Poolable {
 
         this.column = column;
         this.row = row;
+        emptyB = 0;
+        diffY = 0;
         this.type = numToType(typeN);
         this.typeN = typeN;
         FlatColors.organizeColors();
@@ -105,22 +93,18 @@ public class Square extends GameObject implements Poolable {
 
         bonusAndDiss(width, height);
 
-        //PARTICLES
-        particleEffect.setPosition(
-                sprite.getX() + (sprite.getWidth() / 2),
-                sprite.getY() + (sprite.getHeight() / 2));
-        particleEffect.start();
-        particleEffect.start();
-
-        handleBonus();
+        setBonus(bonusN);
 
         alive = true;
     }
 
     public void update(float delta) {
         super.update(delta);
-        // particleEffect.update(delta);
-        particleEffect.update(delta);
+        //PARTICLES
+        if (particleEffect != null) {
+            particleEffect.update(delta);
+            if (particleEffect.isComplete()) freeParticleEffect();
+        }
         //text.update(delta);
         //text.setText(column + "" + row /*+ "\nE:" + emptyB*/);
         //text.setPosition(getPosition().x + 10, getPosition().y);
@@ -134,12 +118,14 @@ public class Square extends GameObject implements Poolable {
         }
     }
 
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
+    public void render(RenderQueue queue, DebugOverlay debug) {
         //if ((column+row)%2==0) backSprite.draw(batch);
-        if (type == Type.EMPTY) particleEffect.draw(batch);
-        super.render(batch, shapeRenderer);
-        if (bonus != Bonus.NORMAL) bonusSprite.draw(batch);
-        if (type == Type.EMPTY) dissEffect.draw(batch);
+        if (type == Type.EMPTY && particleEffect != null) {
+            queue.draw(RenderQueue.PARTICLES, particleEffect);
+        }
+        super.render(queue, debug);
+        if (bonus != Bonus.NORMAL) queue.draw(RenderQueue.BONUS, bonusSprite);
+        if (type == Type.EMPTY) queue.draw(RenderQueue.EFFECTS, dissEffect);
     }
 
     public void setCoord(int column, int row) {
@@ -148,9 +134,13 @@ public class Square extends GameObject implements Poolable {
     }
 
 
-    public void start(float v) {
+    /**
+     * Returns the seconds until the square has appeared.
+     */
+    public float start(float v) {
         fadeIn(.5f, v);
         scale(0, 1, .5f, v);
+        return v + .5f;
     }
 
     public void select() {
@@ -203,97 +193,55 @@ public class Square extends GameObject implements Poolable {
         }
     }
 
-    public void swapXandY(Square[][] squares, int x1, int y1, int x2, int y2) {
-        Vector2 tempV = squares[x1][y1].getPosition().cpy();
-        Vector2 tempV1 = squares[x2][y2].getPosition().cpy();
+    /**
+     * Animates the squares of the two cells towards each other, the board swaps them. Returns
+     * the seconds until they arrive.
+     */
+    public float swapXandY(Square[][] squares, int x1, int y1, int x2, int y2) {
+        Vector2 tempV = tmpFrom.set(squares[x1][y1].getPosition());
+        Vector2 tempV1 = tmpTo.set(squares[x2][y2].getPosition());
 
         squares[x1][y1].effectXY(tempV, tempV1, .2f, .0f);
         squares[x2][y2].effectXY(tempV1, tempV, .2f, .0f);
-
-        Square temp = squares[x1][y1];
-        squares[x1][y1] = squares[x2][y2];
-        squares[x2][y2] = temp;
-
-        //CHANGING COLUMN AND ROW
-        squares[x2][y2].setCoord(x2, y2);
-        squares[x1][y1].setCoord(x1, y1);
-
+        return .2f;
     }
 
-    private void swapXandYwithCheck(final Square[][] squares, final int x1, final int y1,
-                                    final int x2, final int y2) {
-        Vector2 tempV = squares[x1][y1].getPosition().cpy();
-        Vector2 tempV1 = squares[x2][y2].getPosition().cpy();
-
-        squares[x1][y1].effectXY(tempV, tempV1, .2f, .0f);
-        squares[x2][y2].effectXY(tempV1, tempV, .2f, .0f);
-
-        Square temp = squares[x1][y1];
-        squares[x1][y1] = squares[x2][y2];
-        squares[x2][y2] = temp;
-
-        //CHANGING COLUMN AND ROW
-        squares[x2][y2].setCoord(x2, y2);
-        squares[x1][y1].setCoord(x1, y1);
-
-        Value timer = new Value();
-        Tween.to(timer, -1, .21f).target(1).setCallbackTriggers(TweenCallback.COMPLETE)
-                .setCallback(new TweenCallback() {
-                    @Override
-                    public void onEvent(int type, BaseTween<?> source) {
-                        if (world.board.check().size == 0) {
-                            swapXandY(squares, x2, y2, x1, y1);
-                        } else {
-                            world.board.control();
-                        }
-                    }
-                }).start(getManager());
+    private void swapXandYwithCheck(Square[][] squares, int x1, int y1, int x2, int y2) {
+        //SWAPPING IN THE MODEL, the cascade swaps back if there is no match
+        world.board.trySwap(x1, y1, x2, y2);
     }
 
     @Override
     public void effectXY(Vector2 from, Vector2 to, float duration, float delay) {
         position.y = from.y;
-        Tween.to(position, VectorAccessor.VERTICAL, duration).target(to.y).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(getManager());
+        animate(Tween.to(position, VectorAccessor.VERTICAL, duration).target(to.y).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
         position.x = from.x;
-        Tween.to(position, VectorAccessor.HORIZONTAL, duration).target(to.x).delay(delay)
-                .ease(TweenEquations.easeInOutSine).start(getManager());
+        animate(Tween.to(position, VectorAccessor.HORIZONTAL, duration).target(to.x).delay(delay)
+                .ease(TweenEquations.easeInOutSine));
     }
 
-    public void dissapear() {
-        if (type != Type.EMPTY) {
-            scale(1, 0, .45f, .1f);
-            fadeOut(.4f, .1f);
-            setType(-1);
-            dissEffect.setPosition(
-                    sprite.getX() + (sprite.getWidth() / 2) - (dissEffect.getWidth() / 2),
-                    sprite.getY() + (sprite.getHeight() / 2) - (dissEffect.getHeight() / 2));
-            particleEffect.setPosition(
-                    sprite.getX() + (sprite.getWidth() / 2),
-                    sprite.getY() + (sprite.getHeight() / 2));
-
-            particleEffect.reset();
-            Tween.to(dissEffect, SpriteAccessor.SCALE, .3f).target(1).start(getManager());
-            Tween.to(dissEffect, SpriteAccessor.ALPHA, .3f).delay(.1f).target(0).start(getManager());
-        }
-    }
+    /**
+     * Returns the seconds until the square is gone, 0 when it already was.
+     */
+    public float dissapear() {
+        if (type == Type.EMPTY) return 0;
+        scale(1, 0, .45f, .1f);
+        fadeOut(.4f, .1f);
+        setType(-1);
+        dissEffect.setPosition(
+                sprite.getX() + (sprite.getWidth() / 2) - (dissEffect.getWidth() / 2),
+                sprite.getY() + (sprite.getHeight() / 2) - (dissEffect.getHeight() / 2));
+        if (particleEffect == null) particleEffect = GlobalPools.obtainHitEffect();
+        particleEffect.setPosition(
+                sprite.getX() + (sprite.getWidth() / 2),
+                sprite.getY() + (sprite.getHeight() / 2));
 
-    public void dissapearWithBonus(boolean isHorizontal) {
-
-        switch (bonus) {
-            case BITCOIN:
-                world.board.dissapearBitcoin(column, row);
-                break;
-            case RAY:
-                world.board.dissapearOneLine(column, row, isHorizontal);
-                break;
-            case BOMB:
-                world.board.dissapearBomb(column, row);
-                break;
-            default:
-                world.board.squares[column][row].dissapear();
-                break;
-        }
+        particleEffect.reset();
+        particleEffect.start();
+        animate(Tween.to(dissEffect, SpriteAccessor.SCALE, .3f).target(1));
+        animate(Tween.to(dissEffect, SpriteAccessor.ALPHA, .3f).delay(.1f).target(0));
+        return .55f;
     }
 
     public void setType(int i) {
@@ -304,11 +252,15 @@ public class Square extends GameObject implements Poolable {
         bonus = numToBonus(i);
     }
 
-    public void fallingEffect(Vector2 vector2, float delay) {
+    /**
+     * Drops a new square into its cell, returns the seconds until it lands.
+     */
+    public float fallingEffect(Vector2 vector2, float delay) {
         position.y = vector2.y;
         effectY(vector2.y + 300, vector2.y, .3f, delay);
         fadeIn(.3f, delay);
         scale(0, 1, .3f, delay);
+        return delay + .3f;
     }
 
     public Type numToType(int num) {
@@ -364,9 +316,18 @@ public class Square extends GameObject implements Poolable {
     }
 
 
+    private void freeParticleEffect() {
+        if (particleEffect != null) {
+            particleEffect.free();
+            particleEffect = null;
+        }
+    }
+
     @Override
     public void reset() {
         alive = false;
+        if (world != null) world.tweens.killAll(this);
+        freeParticleEffect();
         initReset();
     }
 }
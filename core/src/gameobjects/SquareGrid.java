@@ -0,0 +1,71 @@
+package gameobjects;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Uniform grid over the board holding the squares that are away from their cell, falling or
+ * swapping, so a touch only has to test the few squares of one bucket. Squares and points
+ * outside the grid are clamped to the border buckets, which keeps lookups exact.
+ */
+public class SquareGrid {
+
+    private float x, y, bucketSize;
+    private int columns, rows;
+    private final Array<Array<Square>> buckets = new Array<Array<Square>>();
+    private int size;
+
+    public void reset(float x, float y, float width, float height, float bucketSize) {
+        this.x = x;
+        this.y = y;
+        this.bucketSize = bucketSize;
+        columns = Math.max(1, (int) Math.ceil(width / bucketSize));
+        rows = Math.max(1, (int) Math.ceil(height / bucketSize));
+        while (buckets.size < columns * rows) buckets.add(new Array<Square>(false, 4));
+        clear();
+    }
+
+    public void clear() {
+        for (int i = 0; i < buckets.size; i++) buckets.get(i).clear();
+        size = 0;
+    }
+
+    public void add(Square square) {
+        Rectangle r = square.getRectangle();
+        int fromX = column(r.x), toX = column(r.x + r.width);
+        int fromY = row(r.y), toY = row(r.y + r.height);
+        for (int i = fromX; i <= toX; i++) {
+            for (int j = fromY; j <= toY; j++) {
+                buckets.get(j * columns + i).add(square);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * The last added square whose rectangle contains the point, or null.
+     */
+    public Square find(float px, float py) {
+        if (size == 0) return null;
+        Array<Square> bucket = buckets.get(row(py) * columns + column(px));
+        for (int i = bucket.size - 1; i >= 0; i--) {
+            Square square = bucket.get(i);
+            if (square.getRectangle().contains(px, py)) return square;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int column(float px) {
+        int i = (int) Math.floor((px - x) / bucketSize);
+        return i < 0 ? 0 : i >= columns ? columns - 1 : i;
+    }
+
+    private int row(float py) {
+        int j = (int) Math.floor((py - y) / bucketSize);
+        return j < 0 ? 0 : j >= rows ? rows - 1 : j;
+    }
+}
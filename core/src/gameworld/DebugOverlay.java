@@ -0,0 +1,90 @@
+package gameworld;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Debug shapes collected while the world renders and drawn after the sprites in one
+ * ShapeRenderer pass, so Configuration.DEBUG no longer breaks the batch for every object.
+ * Shapes are stored as primitives and the overlay is emptied after every render.
+ */
+public class DebugOverlay {
+
+    private static final int RECT = 0, CIRCLE = 1, LINE = 2;
+    private static final float ARROW_HEAD = 15, ARROW_ANGLE = 25;
+
+    //per shape: kind and rgba8888 color in shapes, 4 floats in coords
+    private final IntArray shapes = new IntArray();
+    private final FloatArray coords = new FloatArray();
+    private final Color color = new Color();
+
+    public void rect(float x, float y, float width, float height, Color color) {
+        add(RECT, color, x, y, width, height);
+    }
+
+    public void circle(float x, float y, float radius, Color color) {
+        add(CIRCLE, color, x, y, radius, 0);
+    }
+
+    public void line(float x1, float y1, float x2, float y2, Color color) {
+        add(LINE, color, x1, y1, x2, y2);
+    }
+
+    public void arrow(float x1, float y1, float x2, float y2, Color color) {
+        line(x1, y1, x2, y2, color);
+        float angle = MathUtils.atan2(y1 - y2, x1 - x2) * MathUtils.radiansToDegrees;
+        line(x2, y2, x2 + ARROW_HEAD * MathUtils.cosDeg(angle + ARROW_ANGLE),
+             y2 + ARROW_HEAD * MathUtils.sinDeg(angle + ARROW_ANGLE), color);
+        line(x2, y2, x2 + ARROW_HEAD * MathUtils.cosDeg(angle - ARROW_ANGLE),
+             y2 + ARROW_HEAD * MathUtils.sinDeg(angle - ARROW_ANGLE), color);
+    }
+
+    /**
+     * Draws everything collected since the last call with one begin/end and empties the
+     * overlay. Must be called outside of a SpriteBatch begin/end.
+     */
+    public void render(ShapeRenderer shapeRenderer) {
+        if (shapes.size == 0) return;
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        for (int i = 0, n = shapes.size / 2; i < n; i++) {
+            Color.rgba8888ToColor(color, shapes.get(i * 2 + 1));
+            shapeRenderer.setColor(color);
+            float a = coords.get(i * 4), b = coords.get(i * 4 + 1);
+            float c = coords.get(i * 4 + 2), d = coords.get(i * 4 + 3);
+            switch (shapes.get(i * 2)) {
+                case RECT:
+                    shapeRenderer.rect(a, b, c, d);
+                    break;
+                case CIRCLE:
+                    shapeRenderer.circle(a, b, c);
+                    break;
+                case LINE:
+                    shapeRenderer.line(a, b, c, d);
+                    break;
+            }
+        }
+        shapeRenderer.end();
+        clear();
+    }
+
+    public void clear() {
+        shapes.clear();
+        coords.clear();
+    }
+
+    public int size() {
+        return shapes.size / 2;
+    }
+
+    private void add(int kind, Color color, float a, float b, float c, float d) {
+        shapes.add(kind);
+        shapes.add(Color.rgba8888(color));
+        coords.add(a);
+        coords.add(b);
+        coords.add(c);
+        coords.add(d);
+    }
+}
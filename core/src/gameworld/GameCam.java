@@ -3,42 +3,141 @@ package gameworld;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 
+/**
+ * World camera. It stays still while the board fits the screen, on bigger boards it scrolls and
+ * zooms inside the board limits. getBounds() is the visible world area, objects and board chunks
+ * outside of it are neither updated nor drawn. The background and the UI layers are drawn with a
+ * fixed screen camera, see RenderQueue.isScreenLayer(int).
+ */
 public class GameCam {
 
-    private OrthographicCamera camera;
+    //zoom 2 shows twice the world width, the visible area caps the cost of a frame
+    public static final float MIN_ZOOM = .5f, MAX_ZOOM = 2;
+
+    private OrthographicCamera camera, screenCamera;
     private GameWorld world;
     private Vector3 point;
     private Rectangle bounds;
+    private final Rectangle limits = new Rectangle();
+    private float zoom = 1;
 
     public GameCam(GameWorld world) {
         this.world = world;
         camera = new OrthographicCamera(world.gameWidth, world.gameHeight);
+        screenCamera = new OrthographicCamera(world.gameWidth, world.gameHeight);
         point = new Vector3(world.gameWidth / 2, world.gameHeight / 2, 0);
         camera.position.set(point);
         camera.update();
+        screenCamera.position.set(point);
+        screenCamera.update();
         bounds = new Rectangle(point.x - world.gameWidth / 2, point.y - world.gameHeight / 2,
                 world.gameWidth, world.gameHeight);
+        limits.set(bounds);
     }
 
     public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
+        update();
+        camera.position.set(point);
+        camera.zoom = zoom;
         camera.update();
         batch.setProjectionMatrix(camera.combined);
         shapeRenderer.setProjectionMatrix(camera.combined);
-        bounds.setPosition(point.x - world.gameWidth / 2,
-                point.x - world.gameHeight / 2);
+    }
+
+    /**
+     * Clamps the camera to its limits and updates the bounds, once per frame before culling.
+     */
+    public void update() {
+        zoom = MathUtils.clamp(zoom, MIN_ZOOM, maxZoom());
+        float width = world.gameWidth * zoom, height = world.gameHeight * zoom;
+        //limits smaller than the view stay centered
+        point.x = width >= limits.width ? limits.x + limits.width / 2
+                : MathUtils.clamp(point.x, limits.x + width / 2,
+                                  limits.x + limits.width - width / 2);
+        point.y = height >= limits.height ? limits.y + limits.height / 2
+                : MathUtils.clamp(point.y, limits.y + height / 2,
+                                  limits.y + limits.height - height / 2);
+        bounds.set(point.x - width / 2, point.y - height / 2, width, height);
+    }
+
+    /**
+     * The area the camera may show, usually the board. The camera goes back to zoom 1 on the
+     * center of the limits.
+     */
+    public void setLimits(Rectangle limits) {
+        this.limits.set(limits);
+        zoom = 1;
+        point.set(limits.x + limits.width / 2, limits.y + limits.height / 2, 0);
+        update();
+    }
+
+    /**
+     * Whether the limits do not fit the screen at zoom 1, only then the camera can move.
+     */
+    public boolean isScrolling() {
+        return limits.width > world.gameWidth || limits.height > world.gameHeight;
+    }
+
+    /**
+     * Moves the view by a distance in screen units.
+     */
+    public void pan(float dx, float dy) {
+        point.x += dx * zoom;
+        point.y += dy * zoom;
+        update();
+    }
 
+    /**
+     * Zooms by a factor keeping the world point under the screen point (x, y) still.
+     */
+    public void zoom(float factor, float x, float y) {
+        float worldX = toWorldX(x), worldY = toWorldY(y);
+        zoom = MathUtils.clamp(zoom * factor, MIN_ZOOM, maxZoom());
+        point.x = worldX - (x - world.gameWidth / 2) * zoom;
+        point.y = worldY - (y - world.gameHeight / 2) * zoom;
+        update();
+    }
+
+    //past the whole board there is nothing more to see
+    private float maxZoom() {
+        float fit = Math.max(limits.width / world.gameWidth, limits.height / world.gameHeight);
+        return Math.max(1, Math.min(MAX_ZOOM, fit));
+    }
+
+    /**
+     * World x under a screen x, both in game units.
+     */
+    public float toWorldX(float x) {
+        return point.x + (x - world.gameWidth / 2) * zoom;
+    }
+
+    public float toWorldY(float y) {
+        return point.y + (y - world.gameHeight / 2) * zoom;
     }
 
     public OrthographicCamera getCamera() {
         return camera;
     }
 
+    /**
+     * Projection of the screen layers, it never moves.
+     */
+    public Matrix4 getScreenMatrix() {
+        return screenCamera.combined;
+    }
+
+    public float getZoom() {
+        return zoom;
+    }
+
     public void setPoint(Vector2 vec) {
-        point = new Vector3(vec.x, vec.y, 0);
+        point.set(vec.x, vec.y, 0);
     }
 
     public Rectangle getBounds() {
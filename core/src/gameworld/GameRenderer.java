@@ -6,8 +6,10 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.StringBuilder;
 
 import configuration.Configuration;
+import helpers.AllocationCounter;
 
 public class GameRenderer {
 
@@ -16,19 +18,29 @@ public class GameRenderer {
     public static ShaderProgram fontShader, fontShaderA;
     private GameCam camera;
     private SpriteBatch batch;
+    private final RenderQueue queue = new RenderQueue();
+    private LayerCache cache;
+    private final DebugOverlay debug = new DebugOverlay();
     private BitmapFont font = new BitmapFont();
+    //reused every frame so the overlay itself does not allocate
+    private final StringBuilder overlay = new StringBuilder(48);
 
     /*private final String vertexShader, fragmentShader;
     private final ShaderProgram shaderProgram;*/
 
     public GameRenderer(GameWorld world) {
         this.world = world;
-        camera = new GameCam(world);
+        camera = world.camera;
         batch = new SpriteBatch();
         shapeRenderer = new ShapeRenderer();
         initFont();
         font.getData().setScale(3);
         font.setColor(Configuration.FPS_COUNTER_COLOR);
+        if (Configuration.GRID_RENDERER) world.grid = new GridRenderer();
+        if (Configuration.LAYER_CACHE) {
+            cache = new LayerCache(RenderQueue.PARTICLES, world.gameWidth, world.gameHeight);
+            queue.setCache(cache);
+        }
 
         /*
         vertexShader = Gdx.files.internal("misc/vertex.glsl").readString();
@@ -56,15 +68,55 @@ public class GameRenderer {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         Gdx.gl.glEnable(GL20.GL_BLEND);
 
-        batch.begin();
         camera.render(batch, shapeRenderer);
-        world.render(batch, shapeRenderer);
+        queue.setProjections(camera.getCamera().combined,
+                             camera.isScrolling() ? camera.getScreenMatrix() : null);
+        if (cache != null) cache.update(camera.getCamera().combined, world.staticLayersChanged());
+        world.render(queue, debug);
         if (Configuration.FPS_COUNTER) {
-            font.draw(batch, "fps: " + Gdx.graphics.getFramesPerSecond(), 50, 50);
+            queue.draw(RenderQueue.DEBUG, font.getRegion().getTexture(), null, fpsCounter);
+        }
+        queue.render(batch);
+        //every hitbox, match and move of the frame in one pass over the sprites
+        if (Configuration.DEBUG) debug.render(shapeRenderer);
+        else debug.clear();
+    }
+
+    private final RenderQueue.Drawable fpsCounter = new RenderQueue.Drawable() {
+        @Override
+        public void draw(SpriteBatch batch) {
+            overlay.setLength(0);
+            overlay.append("fps: ").append(Gdx.graphics.getFramesPerSecond());
+            //flushes of the previous frame, this one is still being drawn
+            overlay.append("  flushes: ").append(queue.getLastFlushes());
+            if (AllocationCounter.isAvailable()) {
+                overlay.append("  alloc: ").append(AllocationCounter.getLastFrame())
+                       .append(" B  peak: ").append(AllocationCounter.getPeak())
+                       .append(" B  dirty: ").append(AllocationCounter.getFramesWithGarbage());
+            }
+            font.draw(batch, overlay, 50, 50);
         }
-        batch.end();
+    };
 
+    public RenderQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * After the GL context was lost, like when an Android app comes back.
+     */
+    public void resume() {
+        if (world.grid != null) world.grid.invalidate();
+        //managed frame buffers come back empty
+        if (cache != null) cache.invalidate();
+    }
 
+    public void dispose() {
+        if (world.grid != null) world.grid.dispose();
+        world.grid = null;
+        if (cache != null) cache.dispose();
+        queue.setCache(null);
+        cache = null;
     }
 
 }
@@ -1,23 +1,29 @@
 package gameworld;
 
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 
 import java.util.ArrayList;
 
 import MainGame.MainGame;
-import aurelienribon.tweenengine.TweenManager;
+import configuration.Configuration;
 import configuration.Settings;
+import gamecontrol.MatchEngine;
+import gamecontrol.Replay;
 import gameobjects.Board;
 import gameobjects.GameObject;
 import helpers.Animation;
 import helpers.AssetLoader;
 import helpers.FlatColors;
+import helpers.GameRandom;
+import helpers.Scheduler;
 import screens.GameScreen;
 import screens.LoadingScreen;
+import tweens.TweenScheduler;
 import ui.Timer;
 
 import static configuration.Settings.BOARD_MARGIN;
@@ -33,18 +39,41 @@ public class GameWorld {
     //GAMEOBJECTS
     public GameObject background, top;
     private GameState gameState;
-    public TweenManager manager;
+    public final TweenScheduler tweens = new TweenScheduler();
+    public final GameCam camera;
+    //set by GameRenderer with Configuration.GRID_RENDERER, the board draws its jewels with it
+    public GridRenderer grid;
+    public final Scheduler scheduler = new Scheduler();
+    //every random number of the session comes from here or from a split of it
+    public final GameRandom random;
+    //the replay the board plays instead of the player, if any
+    private Replay playback;
+    public static final String REPLAY_FILE = "replays/last.ccr";
     public Board board;
+    private final Rectangle boardBounds = new Rectangle();
+    //smallest board that can still have a match
+    private static final int MIN_BOARD_SIZE = 3;
     public boolean boardBlocked = false;
+    //the background, board frame and backs changed since the last frame
+    private boolean staticDirty = true;
     public Timer timer;
 
     public Animation animBomb, animRay;
 
+    //TIME SCALE, scaled frames are run in steps of at most MAX_STEP
+    private static final float MAX_STEP = 1 / 60f;
+    private static final int MAX_STEPS = 1000;
+    private float timeScale = 1;
+    private boolean logicOnly = false;
+
     public GameWorld(MainGame game, float gameWidth, float gameHeight) {
         this.game = game;
         this.gameWidth = gameWidth;
         this.gameHeight = gameHeight;
         gameState = GameState.TUTORIAL;
+        camera = new GameCam(this);
+        random = Configuration.SEED != 0 ? new GameRandom(Configuration.SEED) : new GameRandom();
+        Gdx.app.log("GameWorld", "seed " + random.getSeed());
         animBomb = new Animation(AssetLoader.explosion.get(0), 46, 1);
         animRay = new Animation(new TextureRegion(AssetLoader.ray), 18, 1);
 
@@ -52,41 +81,157 @@ public class GameWorld {
 
     public void start() {
         //GAMEOBJECTS
-        manager = new TweenManager();
         top = new GameObject(this, 0, 0, gameWidth, gameHeight, AssetLoader.square,
                 FlatColors.WHITE, GameObject.Shape.RECTANGLE);
         background = new GameObject(this, 0, 0, gameWidth, gameHeight,
                 AssetLoader.background, FlatColors.WHITE,
                 GameObject.Shape.RECTANGLE);
+        top.setLayer(RenderQueue.OVERLAY);
+        background.setLayer(RenderQueue.BACKGROUND);
 
         //GAMEOBJECTS
         createBoard();
-        animRay.setSprite(gameWidth / 2, gameHeight / 2, (int) board.getSprite().getHeight() + 20,
-                (int) board.getSprite().getHeight() + 20);
         animBomb.setSprite(gameWidth / 2, gameHeight / 2, 350, 350);
         top.fadeOut(.5f, .0f);
 
         timer = new Timer(this, board.sprite.getX()+Settings.TIMER_PAD*2, board.sprite.getY() - Settings.TIMER_PAD - Settings.TIMER_HEIGHT,
                 board.getSprite().getWidth()-Settings.TIMER_PAD*4, Settings.TIMER_HEIGHT, AssetLoader.board, FlatColors.WHITE, GameObject.Shape.RECTANGLE);
+        layoutAroundBoard();
 
+        setTimeScale(Configuration.TIME_SCALE);
+        setLogicOnly(Configuration.LOGIC_ONLY);
     }
 
     public void update(float delta) {
-        animBomb.update(delta);
-        animRay.update(delta);
-        manager.update(delta);
+        if (timeScale == 1) {
+            step(delta);
+            return;
+        }
+        //every step gives the cascade a chance to advance, so 10x also plays 10x the moves
+        float scaled = delta * timeScale;
+        int steps = Math.min(MAX_STEPS, Math.max(1, (int) Math.ceil(scaled / MAX_STEP)));
+        for (int i = 0; i < steps; i++) step(scaled / steps);
+    }
+
+    private void step(float delta) {
+        if (!logicOnly) {
+            animBomb.update(delta);
+            animRay.update(delta);
+        }
+        tweens.update(delta);
+        scheduler.update(delta);
         board.update(delta);
         top.update(delta);
         timer.update(delta);
     }
 
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
-        background.render(batch, shapeRenderer);
-        board.render(batch, shapeRenderer);
-        top.render(batch, shapeRenderer);
-        animBomb.render(batch);
-        animRay.render(batch);
-        timer.render(batch,shapeRenderer);
+    public void render(RenderQueue queue, DebugOverlay debug) {
+        background.render(queue, debug);
+        board.render(queue, debug);
+        top.render(queue, debug);
+        animBomb.render(queue);
+        animRay.render(queue);
+        timer.render(queue, debug);
+    }
+
+    /**
+     * Whether the background, the board frame or the backs may look different from the last
+     * frame: after a new board and while they are animated. Asked once per frame by the layer
+     * cache, before render().
+     */
+    public boolean staticLayersChanged() {
+        boolean animating = tweens.isAnimating(board) || tweens.isAnimating(background);
+        //one more frame, the last step of a tween is applied in the update that ends it
+        boolean changed = staticDirty || animating;
+        staticDirty = animating;
+        return changed;
+    }
+
+    public void invalidateStaticLayers() {
+        staticDirty = true;
+    }
+
+    /**
+     * Game speed, 1 is real time. Tweens, delayed calls and the board all run scaled.
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = Math.max(0, timeScale);
+    }
+
+    public float getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Logic only mode runs the real board code without waiting for animations: every cascade
+     * resolves in the update that starts it and nothing should be rendered. The board moves
+     * its squares to their cells instead of starting tweens and effects, so soak runs with
+     * Configuration.AUTOSOLVE measure the game logic.
+     */
+    public void setLogicOnly(boolean logicOnly) {
+        this.logicOnly = logicOnly;
+        board.cascade.setInstant(logicOnly);
+    }
+
+    public boolean isLogicOnly() {
+        return logicOnly;
+    }
+
+    /**
+     * Plays the replay on the board once the world starts, call it before start(). The board
+     * takes the size and rules of the replay.
+     */
+    public void setPlayback(Replay playback) {
+        this.playback = playback;
+        if (playback != null) {
+            Settings.NUM_OF_SQUARES_X = playback.getWidth();
+            Settings.NUM_OF_SQUARES_Y = playback.getHeight();
+            Settings.NUM_OF_TYPES = playback.getNumTypes();
+            Settings.BONUS_PROB = playback.getBonusProb();
+        }
+    }
+
+    public Replay getPlayback() {
+        return playback;
+    }
+
+    /**
+     * Appends the moves played since the last call to REPLAY_FILE.
+     */
+    public void saveReplay() {
+        if (board != null) board.replay.flush(Gdx.files.local(REPLAY_FILE));
+    }
+
+    /**
+     * Restarts the game playing back the moves made so far.
+     */
+    public void goToReplay() {
+        setPlayback(board.replay);
+        restart();
+    }
+
+    /**
+     * Starts a new game on a board of columns x rows, in place: the world, the renderer and
+     * the pools are kept and the board reuses its squares.
+     */
+    public void newGame(int columns, int rows) {
+        Settings.NUM_OF_SQUARES_X = MathUtils.clamp(columns, MIN_BOARD_SIZE,
+                                                    MatchEngine.MAX_SIZE);
+        Settings.NUM_OF_SQUARES_Y = MathUtils.clamp(rows, MIN_BOARD_SIZE, MatchEngine.MAX_SIZE);
+        setPlayback(null);
+        restart();
+    }
+
+    private void restart() {
+        saveReplay();
+        score = 0;
+        gameState = GameState.TUTORIAL;
+        layoutBoard();
+        camera.setLimits(boardBounds);
+        board.reset(boardBounds.x, boardBounds.y, boardBounds.width, boardBounds.height,
+                    playback);
+        layoutAroundBoard();
+        top.fadeOut(.5f, .0f);
     }
 
     public void addScore(int i) {
@@ -108,6 +253,7 @@ public class GameWorld {
         gameState = GameState.GAMEOVER;
         game.score = score;
         saveScoreLogic();
+        saveReplay();
     }
 
     public boolean isGameOver() {
@@ -140,12 +286,35 @@ public class GameWorld {
 
     //CREATING STUFF
     private void createBoard() {
-        float boardW = (Settings.NUM_OF_SQUARES_X * Settings.SQUARE_SIZE) + (Settings.SPACE_BETWEEN_SQUARES * (NUM_OF_SQUARES_X + 1)) + (BOARD_MARGIN * 2);
-        float boardH = (Settings.NUM_OF_SQUARES_Y * Settings.SQUARE_SIZE) + (Settings.SPACE_BETWEEN_SQUARES * (NUM_OF_SQUARES_Y + 1)) + (BOARD_MARGIN * 2);
-        float boardX = gameWidth / 2 - (boardW / 2);
-        float boardY = gameHeight / 2 - (boardH / 2);
-        board = new Board(this, boardX, boardY, boardW, boardH, AssetLoader.board,
+        layoutBoard();
+        camera.setLimits(boardBounds);
+        board = new Board(this, boardBounds.x, boardBounds.y, boardBounds.width,
+                boardBounds.height, AssetLoader.board,
                 FlatColors.WHITE,
                 GameObject.Shape.RECTANGLE);
     }
+
+    //centered board for the current Settings, squares shrink to fit
+    private void layoutBoard() {
+        Settings.fitSquareSize(gameWidth, gameHeight);
+        float boardW = (Settings.NUM_OF_SQUARES_X * Settings.SQUARE_SIZE) + (Settings.SPACE_BETWEEN_SQUARES * (NUM_OF_SQUARES_X + 1)) + (BOARD_MARGIN * 2);
+        float boardH = (Settings.NUM_OF_SQUARES_Y * Settings.SQUARE_SIZE) + (Settings.SPACE_BETWEEN_SQUARES * (NUM_OF_SQUARES_Y + 1)) + (BOARD_MARGIN * 2);
+        boardBounds.set(gameWidth / 2 - (boardW / 2), gameHeight / 2 - (boardH / 2), boardW,
+                        boardH);
+    }
+
+    //the ray and the timer follow the board size, the timer stays on screen under a board
+    //that does not fit
+    private void layoutAroundBoard() {
+        animRay.setSprite(gameWidth / 2, gameHeight / 2, (int) board.getSprite().getHeight() + 20,
+                (int) board.getSprite().getHeight() + 20);
+        if (camera.isScrolling()) {
+            timer.setBounds(Settings.TIMER_PAD * 2, Settings.TIMER_PAD,
+                    gameWidth - Settings.TIMER_PAD * 4, Settings.TIMER_HEIGHT);
+        } else {
+            timer.setBounds(board.sprite.getX() + Settings.TIMER_PAD * 2,
+                    board.sprite.getY() - Settings.TIMER_PAD - Settings.TIMER_HEIGHT,
+                    board.getSprite().getWidth() - Settings.TIMER_PAD * 4, Settings.TIMER_HEIGHT);
+        }
+    }
 }
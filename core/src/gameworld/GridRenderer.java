@@ -0,0 +1,296 @@
+package gameworld;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import helpers.AssetLoader;
+import helpers.FlatColors;
+
+/**
+ * Draws the jewels of the board from one vertex buffer in a single call. Every cell is a quad
+ * whose vertices carry the attributes of its jewel: center, scale, alpha, type and bonus. The
+ * shader places the corners and picks the jewel from the type, so the CPU writes 6 values when a
+ * jewel changes instead of a sprite worth of vertices every frame, and only the changed cells
+ * are uploaded. GLES2 has no instancing, the cell attributes are repeated on the 4 vertices.
+ */
+public class GridRenderer {
+
+    //PER VERTEX: center (2), corner (2), scale, alpha, type, bonus
+    private static final int VERTEX_SIZE = 8, STRIDE = VERTEX_SIZE * 4;
+    private static final int CELL_FLOATS = VERTEX_SIZE * 4, CELL_VALUES = 6;
+    private static final float[] CORNERS = {-1, -1, 1, -1, 1, 1, -1, 1};
+
+    private final ShaderProgram shader;
+    private final float[] bonusColors = new float[16];
+    private int columns, rows;
+    private float squareSize;
+
+    //cell values as last written, to find the cells that changed
+    private float[] values = new float[0];
+    private FloatBuffer vertices;
+    private final IntArray dirty = new IntArray();
+    private boolean uploadAll = true;
+    private int vertexBuffer, indexBuffer;
+    //cells hidden when they leave the visible part of the board
+    private int fromColumn, toColumn = -1, fromRow, toRow = -1;
+
+    public GridRenderer() {
+        shader = new ShaderProgram(Gdx.files.internal("misc/grid.vert"),
+                Gdx.files.internal("misc/grid.frag"));
+        if (!shader.isCompiled()) {
+            Gdx.app.error("gridShader", "compilation failed:\n" + shader.getLog());
+        }
+        setBonusColor(1, FlatColors.DARK_WHITE);
+        setBonusColor(2, FlatColors.EVEN_DARK_RED);
+        setBonusColor(3, FlatColors.YELLOW);
+    }
+
+    private void setBonusColor(int bonus, Color color) {
+        bonusColors[bonus * 4] = color.r;
+        bonusColors[bonus * 4 + 1] = color.g;
+        bonusColors[bonus * 4 + 2] = color.b;
+        bonusColors[bonus * 4 + 3] = color.a;
+    }
+
+    /**
+     * Sizes the grid for the board, every cell is hidden and the buffers are only created again
+     * when the board has more cells than before.
+     */
+    public void resize(int columns, int rows, float squareSize) {
+        if (columns == this.columns && rows == this.rows && squareSize == this.squareSize) return;
+        this.columns = columns;
+        this.rows = rows;
+        this.squareSize = squareSize;
+        int cells = columns * rows;
+        if (cells * 4 > Short.MAX_VALUE * 2 + 2) {
+            throw new IllegalArgumentException("Board " + columns + "x" + rows + " is too big");
+        }
+        if (values.length < cells * CELL_VALUES) {
+            values = new float[cells * CELL_VALUES];
+            vertices = BufferUtils.newFloatBuffer(cells * CELL_FLOATS);
+            deleteBuffers();
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            int v = cell * CELL_VALUES;
+            for (int i = 0; i < CELL_VALUES; i++) values[v + i] = 0;
+            for (int k = 0; k < 4; k++) {
+                int base = cell * CELL_FLOATS + k * VERTEX_SIZE;
+                for (int i = 0; i < VERTEX_SIZE; i++) vertices.put(base + i, 0);
+                vertices.put(base + 2, CORNERS[k * 2]);
+                vertices.put(base + 3, CORNERS[k * 2 + 1]);
+            }
+        }
+        fromColumn = fromRow = 0;
+        toColumn = toRow = -1;
+        dirty.clear();
+        uploadAll = true;
+    }
+
+    /**
+     * The jewel of a cell. x and y are the bottom left corner of its sprite, type 0 hides it.
+     */
+    public void set(int column, int row, float x, float y, float scale, float alpha, int type,
+                    int bonus) {
+        float half = squareSize / 2;
+        int cell = column * rows + row;
+        int v = cell * CELL_VALUES;
+        if (values[v] == x + half && values[v + 1] == y + half && values[v + 2] == scale
+                && values[v + 3] == alpha && values[v + 4] == type && values[v + 5] == bonus) {
+            return;
+        }
+        values[v] = x + half;
+        values[v + 1] = y + half;
+        values[v + 2] = scale;
+        values[v + 3] = alpha;
+        values[v + 4] = type;
+        values[v + 5] = bonus;
+        for (int k = 0; k < 4; k++) {
+            int base = cell * CELL_FLOATS + k * VERTEX_SIZE;
+            vertices.put(base, x + half);
+            vertices.put(base + 1, y + half);
+            vertices.put(base + 4, scale);
+            vertices.put(base + 5, alpha);
+            vertices.put(base + 6, type);
+            vertices.put(base + 7, bonus);
+        }
+        if (!uploadAll) dirty.add(cell);
+    }
+
+    /**
+     * Hides the jewel of a cell, while its square is drawn as a sprite.
+     */
+    public void hide(int column, int row) {
+        int v = (column * rows + row) * CELL_VALUES;
+        if (values[v + 4] != 0) set(column, row, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * The cells that will be set from now on. Cells that were visible before and are not any
+     * more are hidden, nothing updates them.
+     */
+    public void setVisible(int fromColumn, int toColumn, int fromRow, int toRow) {
+        for (int i = this.fromColumn; i <= this.toColumn; i++) {
+            for (int j = this.fromRow; j <= this.toRow; j++) {
+                if (i < fromColumn || i > toColumn || j < fromRow || j > toRow) hide(i, j);
+            }
+        }
+        this.fromColumn = fromColumn;
+        this.toColumn = toColumn;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Queues the draw of the visible columns at the layer.
+     */
+    public void draw(RenderQueue queue, int layer) {
+        queue.draw(layer, AssetLoader.jewels.get(0).getTexture(), drawCall);
+    }
+
+    private final RenderQueue.GlDrawable drawCall = new RenderQueue.GlDrawable() {
+        @Override
+        public void draw(Matrix4 projection) {
+            render(projection);
+        }
+    };
+
+    private void render(Matrix4 projection) {
+        if (toColumn < fromColumn) return;
+        GL20 gl = Gdx.gl;
+        if (vertexBuffer == 0) createBuffers();
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, vertexBuffer);
+        upload();
+
+        TextureRegion first = AssetLoader.jewels.get(0);
+        float typeStep = AssetLoader.jewels.size() > 1
+                ? AssetLoader.jewels.get(1).getU() - first.getU() : 0;
+        first.getTexture().bind(0);
+        gl.glEnable(GL20.GL_BLEND);
+        gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+        shader.begin();
+        shader.setUniformMatrix("u_projTrans", projection);
+        shader.setUniformi("u_texture", 0);
+        shader.setUniformf("u_half", squareSize / 2);
+        shader.setUniformf("u_region", first.getU(), first.getV(), first.getU2(), first.getV2());
+        shader.setUniformf("u_typeStep", typeStep);
+        shader.setUniform4fv("u_bonusColors", bonusColors, 0, bonusColors.length);
+        enable("a_center", 2, 0);
+        enable("a_corner", 2, 2);
+        enable("a_scale", 1, 4);
+        enable("a_alpha", 1, 5);
+        enable("a_type", 1, 6);
+        enable("a_bonus", 1, 7);
+
+        //cells go column by column, the visible columns are one range of the buffer
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glDrawElements(GL20.GL_TRIANGLES, (toColumn - fromColumn + 1) * rows * 6,
+                          GL20.GL_UNSIGNED_SHORT, fromColumn * rows * 6 * 2);
+
+        disable("a_center");
+        disable("a_corner");
+        disable("a_scale");
+        disable("a_alpha");
+        disable("a_type");
+        disable("a_bonus");
+        shader.end();
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+    }
+
+    //the whole board after a resize, then runs of consecutive changed cells
+    private void upload() {
+        GL20 gl = Gdx.gl;
+        if (uploadAll) {
+            vertices.position(0);
+            vertices.limit(columns * rows * CELL_FLOATS);
+            gl.glBufferSubData(GL20.GL_ARRAY_BUFFER, 0, vertices.limit() * 4, vertices);
+            uploadAll = false;
+            dirty.clear();
+        }
+        int i = 0;
+        while (i < dirty.size) {
+            int low = dirty.get(i), high = low;
+            i++;
+            //the board writes its cells in descending order, ascending is merged too
+            while (i < dirty.size && (dirty.get(i) == low - 1 || dirty.get(i) == high + 1)) {
+                low = Math.min(low, dirty.get(i));
+                high = Math.max(high, dirty.get(i));
+                i++;
+            }
+            vertices.limit((high + 1) * CELL_FLOATS);
+            vertices.position(low * CELL_FLOATS);
+            gl.glBufferSubData(GL20.GL_ARRAY_BUFFER, low * CELL_FLOATS * 4,
+                               (high - low + 1) * CELL_FLOATS * 4, vertices);
+        }
+        dirty.clear();
+        vertices.clear();
+    }
+
+    private void createBuffers() {
+        GL20 gl = Gdx.gl;
+        int cells = values.length / CELL_VALUES;
+        vertexBuffer = gl.glGenBuffer();
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, vertexBuffer);
+        vertices.clear();
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, cells * CELL_FLOATS * 4, vertices,
+                        GL20.GL_DYNAMIC_DRAW);
+
+        ShortBuffer indices = BufferUtils.newShortBuffer(cells * 6);
+        for (int cell = 0; cell < cells; cell++) {
+            short first = (short) (cell * 4);
+            indices.put(first).put((short) (first + 1)).put((short) (first + 2));
+            indices.put((short) (first + 2)).put((short) (first + 3)).put(first);
+        }
+        indices.flip();
+        indexBuffer = gl.glGenBuffer();
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, cells * 6 * 2, indices,
+                        GL20.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        uploadAll = true;
+    }
+
+    private void enable(String attribute, int size, int offset) {
+        int location = shader.getAttributeLocation(attribute);
+        if (location < 0) return;
+        shader.enableVertexAttribute(location);
+        shader.setVertexAttribute(location, size, GL20.GL_FLOAT, false, STRIDE, offset * 4);
+    }
+
+    private void disable(String attribute) {
+        int location = shader.getAttributeLocation(attribute);
+        if (location >= 0) shader.disableVertexAttribute(location);
+    }
+
+    private void deleteBuffers() {
+        if (vertexBuffer != 0) {
+            Gdx.gl.glDeleteBuffer(vertexBuffer);
+            Gdx.gl.glDeleteBuffer(indexBuffer);
+        }
+        vertexBuffer = indexBuffer = 0;
+    }
+
+    /**
+     * The GL buffers are gone after the context is lost, they are created and uploaded again
+     * on the next draw.
+     */
+    public void invalidate() {
+        vertexBuffer = indexBuffer = 0;
+    }
+
+    public void dispose() {
+        deleteBuffers();
+        shader.dispose();
+    }
+}
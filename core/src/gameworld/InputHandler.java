@@ -16,10 +16,14 @@ public class InputHandler implements InputProcessor {
     private float scaleFactorX;
     private float scaleFactorY;
     int activeTouch = 0;
-    private Vector2 touchDown, touchUp;
+    //touchDown stays null until the first accepted touch
+    private Vector2 touchDown;
+    private final Vector2 touchUp = new Vector2();
+    //last position of a drag that scrolls the camera
+    private final Vector2 lastDrag = new Vector2();
     private Square touchedSquare;
-    private Square[][] squares;
     private int angle;
+    private static final float ZOOM_STEP = 1.1f;
 
     public InputHandler(GameWorld world, float scaleFactorX, float scaleFactorY) {
         this.scaleFactorX = scaleFactorX;
@@ -39,32 +43,49 @@ public class InputHandler implements InputProcessor {
             else Configuration.DEBUG = true;
         } else if (keycode == Input.Keys.C) {
             Gdx.app.log("Matches", world.board.check().toString());
-            world.board.calculateEmptyBelow();
-            world.board.calculateEmptyAbove();
-            world.board.calculateDiffBelow();
         } else if (keycode == Input.Keys.S) {
             Gdx.app.log("Matches", world.board.solutions().toString());
         } else if (keycode == Input.Keys.L) {
-            world.goToGameScreen();
+            newGame(NUM_OF_SQUARES_X, NUM_OF_SQUARES_Y);
         } else if (keycode == Input.Keys.A) {
             if (Configuration.AUTOSOLVE) Configuration.AUTOSOLVE = false;
             else Configuration.AUTOSOLVE = true;
+        } else if (keycode == Input.Keys.M) {
+            //next board size, marathon boards included
+            int next = 0;
+            for (int i = 0; i < BOARD_SIZES.length; i++) {
+                if (BOARD_SIZES[i] <= NUM_OF_SQUARES_X) next = (i + 1) % BOARD_SIZES.length;
+            }
+            newGame(BOARD_SIZES[next], BOARD_SIZES[next]);
+        } else if (keycode == Input.Keys.P) {
+            touchedSquare = null;
+            world.goToReplay();
+        } else if (keycode == Input.Keys.T) {
+            //1x, 10x, logic only
+            if (world.isLogicOnly()) {
+                world.setLogicOnly(false);
+                world.setTimeScale(1);
+            } else if (world.getTimeScale() > 1) {
+                world.setLogicOnly(true);
+            } else world.setTimeScale(10);
         } else if (keycode == Input.Keys.LEFT) {
-            NUM_OF_SQUARES_X--;
-            world.goToGameScreen();
+            newGame(NUM_OF_SQUARES_X - 1, NUM_OF_SQUARES_Y);
         } else if (keycode == Input.Keys.RIGHT) {
-            NUM_OF_SQUARES_X++;
-            world.goToGameScreen();
+            newGame(NUM_OF_SQUARES_X + 1, NUM_OF_SQUARES_Y);
         } else if (keycode == Input.Keys.UP) {
-            NUM_OF_SQUARES_Y++;
-            world.goToGameScreen();
+            newGame(NUM_OF_SQUARES_X, NUM_OF_SQUARES_Y + 1);
         } else if (keycode == Input.Keys.DOWN) {
-            NUM_OF_SQUARES_Y--;
-            world.goToGameScreen();
+            newGame(NUM_OF_SQUARES_X, NUM_OF_SQUARES_Y - 1);
         }
         return false;
     }
 
+    //the touched square goes back to its pool with the old board
+    private void newGame(int columns, int rows) {
+        touchedSquare = null;
+        world.newGame(columns, rows);
+    }
+
 
     @Override
     public boolean keyUp(int keycode) {
@@ -82,19 +103,17 @@ public class InputHandler implements InputProcessor {
         screenX = scaleX(screenX);
         screenY = scaleY(screenY);
         activeTouch++;
+        lastDrag.set(screenX, screenY);
         if (activeTouch == 1 && !world.boardBlocked) {
-            squares = world.board.squares;
-            touchDown = new Vector2(screenX, screenY);
-            touchedSquare = null;
-            for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
-                for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                    if (squares[i][j].isTouchDown(screenX, screenY)) {
-                        touchedSquare = squares[i][j];
-                        touchedSquare.select();
-                        //Gdx.app.log("TouchedSquare: ", i + " " + j);
-                    }
-                }
-            }
+            if (touchDown == null) touchDown = new Vector2();
+            touchDown.set(screenX, screenY);
+            //squares live in world coordinates, the camera may have moved
+            int worldX = (int) world.camera.toWorldX(screenX);
+            int worldY = (int) world.camera.toWorldY(screenY);
+            touchedSquare = world.board.squareAt(worldX, worldY);
+            if (touchedSquare != null && touchedSquare.isTouchDown(worldX, worldY)) {
+                touchedSquare.select();
+            } else touchedSquare = null;
         }
         if (activeTouch == 3) {
             if (Configuration.AUTOSOLVE) Configuration.AUTOSOLVE = false;
@@ -110,7 +129,7 @@ public class InputHandler implements InputProcessor {
         screenY = scaleY(screenY);
         activeTouch--;
 
-        touchUp = new Vector2(screenX, screenY);
+        touchUp.set(screenX, screenY);
 
         angle = angleBetweenTwoPoints(touchDown, touchUp);
 
@@ -129,10 +148,10 @@ public class InputHandler implements InputProcessor {
                     touchedSquare.deSelect();
                 }
 
-                for (int i = 0; i < NUM_OF_SQUARES_X; i++) {
-                    for (int j = 0; j < NUM_OF_SQUARES_Y; j++) {
-                        squares[i][j].isTouchUp(screenX, screenY);
-                    }
+                //only the touched square was pressed
+                if (touchedSquare != null) {
+                    touchedSquare.isTouchUp((int) world.camera.toWorldX(screenX),
+                                            (int) world.camera.toWorldY(screenY));
                 }
             }
         if (touchedSquare != null) touchedSquare.deSelect();
@@ -144,6 +163,11 @@ public class InputHandler implements InputProcessor {
     public boolean touchDragged(int screenX, int screenY, int pointer) {
         screenX = scaleX(screenX);
         screenY = scaleY(screenY);
+        //a drag that did not start on a square scrolls a board bigger than the screen
+        if (activeTouch == 1 && touchedSquare == null && world.camera.isScrolling()) {
+            world.camera.pan(lastDrag.x - screenX, lastDrag.y - screenY);
+        }
+        lastDrag.set(screenX, screenY);
         return false;
     }
 
@@ -154,6 +178,10 @@ public class InputHandler implements InputProcessor {
 
     @Override
     public boolean scrolled(int amount) {
+        if (world.camera.isScrolling()) {
+            world.camera.zoom(amount > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, scaleX(Gdx.input.getX()),
+                              scaleY(Gdx.input.getY()));
+        }
         return false;
     }
 
@@ -173,7 +201,7 @@ public class InputHandler implements InputProcessor {
             if (angle < 0) {
                 angle = 360 + angle;
             }
-            if (new Vector2(deltaX, deltaY).len() < 20) {
+            if (deltaX * deltaX + deltaY * deltaY < 20 * 20) {
                 return -1;
             }
             return (int) angle;
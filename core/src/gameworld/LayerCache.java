@@ -0,0 +1,106 @@
+package gameworld;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Keeps the layers below a top layer (the background, the board frame and the backs) in a
+ * screen sized FrameBuffer. RenderQueue draws them into it only when the cache is invalid and
+ * otherwise composites the buffer as one quad, so a still board costs one draw instead of a
+ * sprite per cell. The cache is invalid after a resize, a lost context, a camera move and every
+ * frame the world reports its static layers as changed, see GameWorld.staticLayersChanged().
+ */
+public class LayerCache {
+
+    private final int topLayer;
+    private final float width, height;
+    private FrameBuffer buffer;
+    private TextureRegion region;
+    private boolean valid;
+    //world projection the cache was drawn with
+    private final Matrix4 projection = new Matrix4();
+
+    /**
+     * Caches the layers below topLayer, width and height are the screen in game units.
+     */
+    public LayerCache(int topLayer, float width, float height) {
+        this.topLayer = topLayer;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Once per frame before the world renders, so it can skip what the cache already holds.
+     */
+    public void update(Matrix4 projection, boolean changed) {
+        if (changed || buffer == null || buffer.getWidth() != Gdx.graphics.getWidth()
+                || buffer.getHeight() != Gdx.graphics.getHeight()) {
+            valid = false;
+        }
+        float[] a = this.projection.val, b = projection.val;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                valid = false;
+                this.projection.set(projection);
+                break;
+            }
+        }
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public int getTopLayer() {
+        return topLayer;
+    }
+
+    /**
+     * Redirects drawing into the cache, the batch must not be drawing.
+     */
+    public void begin() {
+        int w = Gdx.graphics.getWidth(), h = Gdx.graphics.getHeight();
+        if (buffer == null || buffer.getWidth() != w || buffer.getHeight() != h) {
+            if (buffer != null) buffer.dispose();
+            buffer = new FrameBuffer(Pixmap.Format.RGBA8888, w, h, false);
+            region = new TextureRegion(buffer.getColorBufferTexture());
+            //frame buffers are upside down
+            region.flip(false, true);
+        }
+        buffer.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+    }
+
+    public void end() {
+        buffer.end();
+        valid = true;
+    }
+
+    /**
+     * Draws the cache over the whole screen, the batch must be drawing with the screen
+     * projection. The cached layers are opaque, blending would only mix in their alpha.
+     */
+    public void draw(SpriteBatch batch) {
+        if (region == null) return;
+        batch.disableBlending();
+        batch.draw(region, 0, 0, width, height);
+        batch.enableBlending();
+    }
+
+    public void dispose() {
+        if (buffer != null) buffer.dispose();
+        buffer = null;
+        region = null;
+        valid = false;
+    }
+}
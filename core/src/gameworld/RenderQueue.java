@@ -0,0 +1,251 @@
+package gameworld;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.NinePatch;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Comparator;
+
+/**
+ * Draw commands collected during GameWorld.render() and submitted in one batch pass, sorted by
+ * layer, then texture, then shader. Commands with the same key keep the order they were added
+ * in, so objects inside a layer still overlap like before. Commands are pooled and the sort is
+ * stable and allocation free after the first frames. The lowest layers may be kept in a
+ * {@link LayerCache} and drawn as one quad.
+ */
+public class RenderQueue {
+
+    //LAYERS, lower layers are drawn first. They are 10 apart so an object can draw right
+    //above its own layer, GameObject draws its flash sprite at layer + 1
+    public static final int BACKGROUND = 0;
+    public static final int BOARD = 10;
+    public static final int BACKS = 20;
+    public static final int PARTICLES = 30;
+    public static final int PIECES = 40;
+    public static final int BONUS = 60;
+    public static final int EFFECTS = 70;
+    public static final int OVERLAY = 80;
+    public static final int ANIMATIONS = 90;
+    public static final int UI = 100;
+    public static final int TEXT = 110;
+    public static final int DEBUG = 1000;
+
+    /**
+     * Whether the layer is drawn with the fixed screen camera instead of the world one: the
+     * background, the overlay and everything from UI up.
+     */
+    public static boolean isScreenLayer(int layer) {
+        return layer < BOARD || (layer >= OVERLAY && layer < ANIMATIONS) || layer >= UI;
+    }
+
+    /**
+     * Anything that is not a plain Sprite, NinePatch or ParticleEffect, like text.
+     */
+    public interface Drawable {
+        void draw(SpriteBatch batch);
+    }
+
+    /**
+     * Draws with GL directly, like a mesh with its own shader. The batch is ended around it.
+     */
+    public interface GlDrawable {
+        void draw(Matrix4 projection);
+    }
+
+    private static class Command {
+        int layer, texture, shader, order;
+        ShaderProgram shaderProgram;
+        Sprite sprite;
+        NinePatch ninePatch;
+        float x, y, width, height;
+        ParticleEffect effect;
+        Drawable drawable;
+        GlDrawable glDrawable;
+
+        void reset() {
+            shaderProgram = null;
+            sprite = null;
+            ninePatch = null;
+            effect = null;
+            drawable = null;
+            glDrawable = null;
+        }
+    }
+
+    private static final Comparator<Command> ORDER = new Comparator<Command>() {
+        @Override
+        public int compare(Command a, Command b) {
+            if (a.layer != b.layer) return a.layer < b.layer ? -1 : 1;
+            if (a.texture != b.texture) return a.texture < b.texture ? -1 : 1;
+            if (a.shader != b.shader) return a.shader < b.shader ? -1 : 1;
+            return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+        }
+    };
+
+    private final Array<Command> pool = new Array<Command>(false, 128);
+    private final Array<Command> commands = new Array<Command>(true, 128);
+    private int lastFlushes, lastCommands;
+    //null while the world camera does not move, every layer then uses the batch projection
+    private Matrix4 worldMatrix, screenMatrix;
+    private LayerCache cache;
+
+    public void draw(int layer, Sprite sprite) {
+        add(layer, sprite.getTexture(), null).sprite = sprite;
+    }
+
+    public void draw(int layer, NinePatch ninePatch, float x, float y, float width,
+                     float height) {
+        Command command = add(layer, ninePatch.getTexture(), null);
+        command.ninePatch = ninePatch;
+        command.x = x;
+        command.y = y;
+        command.width = width;
+        command.height = height;
+    }
+
+    public void draw(int layer, ParticleEffect effect) {
+        Texture texture = effect.getEmitters().size == 0 ? null
+                : effect.getEmitters().first().getSprite().getTexture();
+        add(layer, texture, null).effect = effect;
+    }
+
+    /**
+     * texture and shader are only used for sorting and may be null, shader is set on the batch
+     * while the drawable draws.
+     */
+    public void draw(int layer, Texture texture, ShaderProgram shader, Drawable drawable) {
+        add(layer, texture, shader).drawable = drawable;
+    }
+
+    /**
+     * texture is only used for sorting and may be null.
+     */
+    public void draw(int layer, Texture texture, GlDrawable drawable) {
+        add(layer, texture, null).glDrawable = drawable;
+    }
+
+    /**
+     * Projections of the world and screen layers for the next render(), or nulls to draw every
+     * layer with the projection of the batch.
+     */
+    public void setProjections(Matrix4 worldMatrix, Matrix4 screenMatrix) {
+        this.worldMatrix = worldMatrix;
+        this.screenMatrix = screenMatrix;
+    }
+
+    /**
+     * Layers below the top layer of the cache are drawn through it, null draws them directly.
+     */
+    public void setCache(LayerCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Whether the layer is already in a valid cache, its draws would be skipped this frame.
+     */
+    public boolean isCached(int layer) {
+        return cache != null && cache.isValid() && layer < cache.getTopLayer();
+    }
+
+    /**
+     * Sorts and draws everything queued since the last call and empties the queue.
+     */
+    public void render(SpriteBatch batch) {
+        commands.sort(ORDER);
+
+        int flushes = 0, first = 0;
+        if (cache != null) {
+            //the cached layers are sorted first, they only go into the cache when it is invalid
+            while (first < commands.size && commands.get(first).layer < cache.getTopLayer()) {
+                first++;
+            }
+            if (!cache.isValid()) {
+                cache.begin();
+                flushes += draw(batch, 0, first);
+                cache.end();
+            }
+            if (screenMatrix != null) batch.setProjectionMatrix(screenMatrix);
+            batch.begin();
+            cache.draw(batch);
+            batch.end();
+            flushes += batch.renderCalls;
+            if (screenMatrix != null) batch.setProjectionMatrix(worldMatrix);
+        }
+        flushes += draw(batch, first, commands.size);
+
+        lastFlushes = flushes;
+        lastCommands = commands.size;
+        for (int i = 0; i < commands.size; i++) {
+            Command command = commands.get(i);
+            command.reset();
+            pool.add(command);
+        }
+        commands.clear();
+    }
+
+    //draws the commands from (inclusive) to (exclusive), returns the flushes
+    private int draw(SpriteBatch batch, int from, int to) {
+        if (screenMatrix != null) batch.setProjectionMatrix(worldMatrix);
+        batch.begin();
+        ShaderProgram current = null;
+        //layers are sorted, so the projection changes at most twice
+        boolean screen = false;
+        //begin() resets the flush count of the batch
+        int flushes = 0;
+        for (int i = from; i < to; i++) {
+            Command command = commands.get(i);
+            if (screenMatrix != null && isScreenLayer(command.layer) != screen) {
+                screen = !screen;
+                batch.setProjectionMatrix(screen ? screenMatrix : worldMatrix);
+            }
+            if (command.shaderProgram != current) {
+                current = command.shaderProgram;
+                batch.setShader(current);
+            }
+            if (command.sprite != null) command.sprite.draw(batch);
+            else if (command.ninePatch != null) {
+                command.ninePatch.draw(batch, command.x, command.y, command.width,
+                                       command.height);
+            } else if (command.effect != null) command.effect.draw(batch);
+            else if (command.glDrawable != null) {
+                batch.end();
+                flushes += batch.renderCalls + 1;
+                command.glDrawable.draw(batch.getProjectionMatrix());
+                batch.begin();
+            } else command.drawable.draw(batch);
+        }
+        if (current != null) batch.setShader(null);
+        batch.end();
+        if (screen) batch.setProjectionMatrix(worldMatrix);
+
+        //renderCalls counts every flush since begin(), texture and shader switches included
+        return flushes + batch.renderCalls;
+    }
+
+    /**
+     * Batch flushes (draw calls) of the last render().
+     */
+    public int getLastFlushes() {
+        return lastFlushes;
+    }
+
+    public int getLastCommands() {
+        return lastCommands;
+    }
+
+    private Command add(int layer, Texture texture, ShaderProgram shader) {
+        Command command = pool.size > 0 ? pool.pop() : new Command();
+        command.layer = layer;
+        command.texture = texture == null ? 0 : texture.getTextureObjectHandle();
+        command.shader = shader == null ? 0 : System.identityHashCode(shader);
+        command.shaderProgram = shader;
+        command.order = commands.size;
+        commands.add(command);
+        return command;
+    }
+}
@@ -0,0 +1,62 @@
+package helpers;
+
+/**
+ * Bytes allocated by the render thread during the last frame, shown next to the fps counter.
+ * Core has no portable way to read allocations, so each launcher plugs in a Source for its
+ * platform. Without one the counter reports -1.
+ */
+public class AllocationCounter {
+
+    public interface Source {
+        /**
+         * Total bytes allocated so far by the calling thread.
+         */
+        long allocatedBytes();
+    }
+
+    private static Source source;
+    //bytes the source allocates itself on every read
+    private static long overhead;
+    private static long frameStart;
+    private static long lastFrame = -1, peak = 0;
+    private static int framesWithGarbage = 0;
+
+    public static void setSource(Source newSource) {
+        source = newSource;
+        lastFrame = -1;
+        peak = 0;
+        framesWithGarbage = 0;
+        if (source != null) {
+            long a = source.allocatedBytes();
+            long b = source.allocatedBytes();
+            overhead = Math.max(0, b - a);
+        }
+    }
+
+    public static boolean isAvailable() {
+        return source != null;
+    }
+
+    public static void beginFrame() {
+        if (source != null) frameStart = source.allocatedBytes();
+    }
+
+    public static void endFrame() {
+        if (source == null) return;
+        lastFrame = Math.max(0, source.allocatedBytes() - frameStart - overhead);
+        if (lastFrame > peak) peak = lastFrame;
+        if (lastFrame > 0) framesWithGarbage++;
+    }
+
+    public static long getLastFrame() {
+        return lastFrame;
+    }
+
+    public static long getPeak() {
+        return peak;
+    }
+
+    public static int getFramesWithGarbage() {
+        return framesWithGarbage;
+    }
+}
@@ -1,10 +1,11 @@
 package helpers;
 
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
 
+import gameworld.RenderQueue;
+
 public class Animation {
     private Array<TextureRegion> frames;
     private float maxFrameTime;
@@ -60,9 +61,9 @@ public class Animation {
         }
     }
 
-    public void render(SpriteBatch batch) {
+    public void render(RenderQueue queue) {
         if (currentDelayTime >= delay && counterTimes < times)
-            sprite.draw(batch);
+            queue.draw(RenderQueue.ANIMATIONS, sprite);
 
     }
 
@@ -7,7 +7,9 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 
 import java.util.ArrayList;
 
@@ -17,11 +19,11 @@ import configuration.Settings;
 public class AssetLoader {
 
     //BASIC
-    public static Texture dotT;
     public static TextureRegion square, dot;
 
     //ADVANCE
-    public static Texture background, jewelsTexture, dissEffect, board, back, bomb, ray;
+    public static Texture background;
+    public static TextureRegion jewelsTexture, dissEffect, board, back, bomb, ray;
     public static ArrayList<TextureRegion> jewels = new ArrayList<TextureRegion>();
     public static ArrayList<TextureRegion> jewelsSelected = new ArrayList<TextureRegion>();
     public static ArrayList<TextureRegion> explosion = new ArrayList<TextureRegion>();
@@ -39,35 +41,34 @@ public class AssetLoader {
     //private static GameInterface gameInterface;
 
     public static void load() {
-        square = new TextureRegion(getAssetTexture("square.png"));
-        dotT = getAssetTexture("dot.png");
-        dot = new TextureRegion(dotT);
+        square = getAssetRegion("square");
+        dot = getAssetRegion("dot");
 
         background = getAssetTexture("background.png");
-        jewelsTexture = getAssetTexture("jewels.png");
+        jewelsTexture = getAssetRegion("jewels");
         for (int i = 0; i < Settings.NUM_OF_TYPES; i++) {
             jewels.add(new TextureRegion(jewelsTexture, 400 * i, 0, 400, 400));
         }
-        jewelsTexture = getAssetTexture("jewels_selected.png");
+        jewelsTexture = getAssetRegion("jewels_selected");
         for (int i = 0; i < Settings.NUM_OF_TYPES; i++) {
             jewelsSelected.add(new TextureRegion(jewelsTexture, 400 * i, 0, 400, 400));
         }
-        bomb = getAssetTexture("explosion.png");
+        bomb = new TextureRegion(getAssetTexture("explosion.png"));
         for (int i = 0; i < Settings.NUM_OF_TYPES; i++) {
             explosion.add(new TextureRegion(bomb, 0,
-                                            bomb.getHeight() / 5 * i, bomb.getWidth(),
-                                            bomb.getHeight() / 5));
+                                            bomb.getRegionHeight() / 5 * i,
+                                            bomb.getRegionWidth(), bomb.getRegionHeight() / 5));
         }
-        ray = getAssetTexture("ray.png");
+        ray = new TextureRegion(getAssetTexture("ray.png"));
 
         for (int i = 0; i < Settings.NUM_OF_TYPES; i++) {
-            rays.add(new TextureRegion(getAssetTexture("ray.png"), 0,
-                                      ray.getHeight() / 5 * i, ray.getWidth(),
-                                      ray.getHeight() / 5));
+            rays.add(new TextureRegion(ray, 0,
+                                      ray.getRegionHeight() / 5 * i, ray.getRegionWidth(),
+                                      ray.getRegionHeight() / 5));
         }
-        dissEffect = getAssetTexture("dissEffect.png");
-        back = getAssetTexture("back.png");
-        board = getAssetTexture("board2.png");
+        dissEffect = getAssetRegion("dissEffect");
+        back = getAssetRegion("back");
+        board = getAssetRegion("board2");
 
 
         //FONTS
@@ -191,6 +192,23 @@ public class AssetLoader {
         return Assets.manager.get(fileName, Texture.class);
     }
 
+    /**
+     * Region of a packed image, looked up by file name without extension. Falls back to the
+     * whole loose texture when the atlas was not packed.
+     */
+    public static TextureRegion getAssetRegion(String name) {
+        if (!Assets.useAtlases) {
+            return new TextureRegion(getAssetTexture(name + ".png"));
+        }
+        TextureRegion region = getAtlas(Assets.GAME_ATLAS).findRegion(name);
+        if (region == null) throw new GdxRuntimeException("Region not packed: " + name);
+        return region;
+    }
+
+    public static TextureAtlas getAtlas(String fileName) {
+        return Assets.manager.get(fileName, TextureAtlas.class);
+    }
+
     public static Sound getAssetSound(String fileName) {
         return Assets.manager.get(fileName, Sound.class);
     }
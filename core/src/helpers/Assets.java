@@ -1,16 +1,22 @@
 package helpers;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.TextureLoader;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 
 public class Assets {
 
     public static AssetManager manager;
 
+    //packed by desktop:packTextures, see desktop/build.gradle
+    public static final String GAME_ATLAS = "atlas/game.atlas";
+    public static boolean useAtlases;
+
     public static void load() {
         manager = new AssetManager();
         Texture.setAssetManager(manager);
@@ -24,16 +30,23 @@ public class Assets {
         //param = null;
 
         //Textures
-        manager.load("explosion.png", Texture.class, param);
-        manager.load("back.png", Texture.class, param);
-        manager.load("board2.png", Texture.class, param);
-        manager.load("dot.png", Texture.class, param);
-        manager.load("square.png", Texture.class, param);
         manager.load("background.png", Texture.class, param);
-        manager.load("jewels.png", Texture.class, param);
-        manager.load("jewels_selected.png", Texture.class, param);
-        manager.load("dissEffect.png", Texture.class, param);
+        //the bomb and ray strips are too wide to be packed
+        manager.load("explosion.png", Texture.class, param);
         manager.load("ray.png", Texture.class, param);
+        useAtlases = Gdx.files.internal(GAME_ATLAS).exists();
+        if (useAtlases) {
+            manager.load(GAME_ATLAS, TextureAtlas.class);
+        } else {
+            //loose images, when the atlas has not been packed
+            manager.load("back.png", Texture.class, param);
+            manager.load("board2.png", Texture.class, param);
+            manager.load("dot.png", Texture.class, param);
+            manager.load("square.png", Texture.class, param);
+            manager.load("jewels.png", Texture.class, param);
+            manager.load("jewels_selected.png", Texture.class, param);
+            manager.load("dissEffect.png", Texture.class, param);
+        }
 
         //Font
         manager.load("misc/font.fnt", BitmapFont.class);
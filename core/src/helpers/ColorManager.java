@@ -1,16 +1,15 @@
 package helpers;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.MathUtils;
 
 import java.util.ArrayList;
-import java.util.Random;
 
 import aurelienribon.tweenengine.BaseTween;
 import aurelienribon.tweenengine.Tween;
 import aurelienribon.tweenengine.TweenCallback;
 import aurelienribon.tweenengine.TweenEquations;
 import aurelienribon.tweenengine.TweenManager;
+import gameworld.GameWorld;
 import tweens.Value;
 import tweens.ValueAccessor;
 
@@ -20,14 +19,16 @@ public class ColorManager {
     private Value c2 = new Value();
     private Value c3 = new Value();
     private TweenCallback cb, cb1, cb2;
-    private Color color;
+    private final Color color = new Color();
     private ArrayList<String> colors = new ArrayList<String>();
     private float target1, target2, target3;
 
-    private Random randomGenarator;
+    private final GameRandom randomGenarator;
     private Integer random, rtime;
 
-    public ColorManager() {
+    public ColorManager(GameWorld world) {
+        //a stream of its own, the colors do not change the other random numbers of the game
+        randomGenarator = world.random.split();
 
         // COLORS
         this.colors.add("EF717A");
@@ -38,7 +39,7 @@ public class ColorManager {
         this.colors.add("CF86ED");
         this.colors.add("7471F2");
 
-        color = parseColor(colors.get(MathUtils.random(0,colors.size()-1)), 1f);
+        color.set(parseColor(colors.get(randomGenarator.nextInt(colors.size())), 1f));
         c1.setValue(color.r);
         c2.setValue(color.g);
         c3.setValue(color.b);
@@ -46,8 +47,6 @@ public class ColorManager {
         Tween.registerAccessor(Value.class, new ValueAccessor());
         manager = new TweenManager();
 
-        randomGenarator = new Random();
-
         cb = new TweenCallback() {
             @Override
             public void onEvent(int type, BaseTween<?> source) {
@@ -101,7 +100,7 @@ public class ColorManager {
 
     public void update(float delta) {
         manager.update(delta);
-        color = new Color(c1.getValue(), c2.getValue(), c3.getValue(),1f);
+        color.set(c1.getValue(), c2.getValue(), c3.getValue(), 1f);
     }
 
     public static Color parseColor(String hex, float alpha) {
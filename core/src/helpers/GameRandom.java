@@ -0,0 +1,134 @@
+package helpers;
+
+import java.util.Random;
+
+/**
+ * Seeded xoshiro256** generator. The four state words are expanded from the seed with
+ * SplitMix64, so any seed, 0 included, gives a well mixed stream and the same seed always gives
+ * the same game. split() derives an independent generator, which lets the board, the visual
+ * effects and parallel simulations each own a stream without consuming numbers from the
+ * others. Not thread safe, every thread should use its own split.
+ */
+public class GameRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long seed;
+    private long s0, s1, s2, s3;
+
+    /**
+     * A generator with a fresh seed, read it with getSeed() to reproduce the stream.
+     */
+    public GameRandom() {
+        this(mix(System.nanoTime() ^ System.currentTimeMillis() * GOLDEN_GAMMA));
+    }
+
+    public GameRandom(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Restarts the stream from seed. Called by the Random constructor too.
+     */
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        long x = seed;
+        s0 = mix(x += GOLDEN_GAMMA);
+        s1 = mix(x += GOLDEN_GAMMA);
+        s2 = mix(x += GOLDEN_GAMMA);
+        s3 = mix(x + GOLDEN_GAMMA);
+    }
+
+    /**
+     * The seed this stream started from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Copies the four state words into state, to continue the stream later with setState.
+     */
+    public void getState(long[] state) {
+        state[0] = s0;
+        state[1] = s1;
+        state[2] = s2;
+        state[3] = s3;
+    }
+
+    public void setState(long[] state) {
+        s0 = state[0];
+        s1 = state[1];
+        s2 = state[2];
+        s3 = state[3];
+    }
+
+    /**
+     * A new generator seeded from this stream, independent from it from then on.
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Uniform in [0, bound), without the retry loop of Random for the small bounds the game uses.
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Uniform in [start, end], like MathUtils.random(int, int).
+     */
+    public int nextInt(int start, int end) {
+        return start + nextInt(end - start + 1);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,5 +1,9 @@
 package helpers;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
 import com.badlogic.gdx.math.Circle;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
@@ -40,6 +44,24 @@ public class GlobalPools {
         }
     };
 
+    //hit particle effect pool, misc/hit.p is parsed once and copied for every pooled effect
+    private static ParticleEffectPool hitEffectPool;
+
+    public static PooledEffect obtainHitEffect() {
+        if (hitEffectPool == null) {
+            ParticleEffect hitEffect = new ParticleEffect();
+            if (Assets.useAtlases) {
+                //particle.png is packed with the board sprites, no texture switch per square
+                hitEffect.load(Gdx.files.internal("misc/hit.p"),
+                               AssetLoader.getAtlas(Assets.GAME_ATLAS));
+            } else {
+                hitEffect.load(Gdx.files.internal("misc/hit.p"), Gdx.files.internal(""));
+            }
+            hitEffectPool = new ParticleEffectPool(hitEffect, 16, 64);
+        }
+        return hitEffectPool.obtain();
+    }
+
     public static void preloadPools(float total){
 
         //squares
@@ -0,0 +1,128 @@
+package helpers;
+
+/**
+ * Delayed calls without garbage. Pending calls are kept in parallel primitive arrays sorted by
+ * fire time, and calls due at the same time run in the order they were scheduled. The tasks
+ * are plain Runnables that the caller creates once and reuses, so scheduling only allocates
+ * when the arrays have to grow.
+ */
+public class Scheduler {
+
+    private double time;
+    private double[] fireTimes;
+    private int[] ids;
+    private Runnable[] tasks;
+    private int size;
+    private int nextId = 1;
+
+    public Scheduler() {
+        this(16);
+    }
+
+    public Scheduler(int capacity) {
+        fireTimes = new double[capacity];
+        ids = new int[capacity];
+        tasks = new Runnable[capacity];
+    }
+
+    /**
+     * Runs the task once after delay seconds. Returns an id that can be passed to cancel(int).
+     */
+    public int schedule(float delay, Runnable task) {
+        if (task == null) throw new IllegalArgumentException("task cannot be null");
+        if (size == tasks.length) grow();
+
+        double fireTime = time + Math.max(0, delay);
+        //after every call due at the same time, so ties keep the scheduling order
+        int index = size;
+        while (index > 0 && fireTimes[index - 1] > fireTime) index--;
+        System.arraycopy(fireTimes, index, fireTimes, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(tasks, index, tasks, index + 1, size - index);
+
+        int id = nextId++;
+        if (nextId == 0) nextId = 1;
+        fireTimes[index] = fireTime;
+        ids[index] = id;
+        tasks[index] = task;
+        size++;
+        return id;
+    }
+
+    /**
+     * Advances the clock and runs every call that is due. Calls scheduled while updating run
+     * on a later update at the earliest, even with no delay.
+     */
+    public void update(float delta) {
+        time += delta;
+        //calls added from now on get ids from firstNewId, and they always sort after the
+        //calls that are already due, so the loop stops at the first of them
+        int firstNewId = nextId;
+        while (size > 0 && fireTimes[0] <= time && ids[0] - firstNewId < 0) {
+            Runnable task = tasks[0];
+            removeIndex(0);
+            task.run();
+        }
+    }
+
+    public boolean cancel(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                removeIndex(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cancels every pending call of the task. Returns how many were cancelled.
+     */
+    public int cancelAll(Runnable task) {
+        int cancelled = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            if (tasks[i] == task) {
+                removeIndex(i);
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    public boolean isScheduled(Runnable task) {
+        for (int i = 0; i < size; i++) {
+            if (tasks[i] == task) return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) tasks[i] = null;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void removeIndex(int index) {
+        size--;
+        System.arraycopy(fireTimes, index + 1, fireTimes, index, size - index);
+        System.arraycopy(ids, index + 1, ids, index, size - index);
+        System.arraycopy(tasks, index + 1, tasks, index, size - index);
+        tasks[size] = null;
+    }
+
+    private void grow() {
+        int capacity = Math.max(8, tasks.length * 2);
+        double[] newFireTimes = new double[capacity];
+        int[] newIds = new int[capacity];
+        Runnable[] newTasks = new Runnable[capacity];
+        System.arraycopy(fireTimes, 0, newFireTimes, 0, size);
+        System.arraycopy(ids, 0, newIds, 0, size);
+        System.arraycopy(tasks, 0, newTasks, 0, size);
+        fireTimes = newFireTimes;
+        ids = newIds;
+        tasks = newTasks;
+    }
+}
@@ -1,12 +1,12 @@
 package menuworld;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 import MainGame.MainGame;
 import gameobjects.GameObject;
+import gameworld.DebugOverlay;
 import gameworld.GameWorld;
+import gameworld.RenderQueue;
 import helpers.AssetLoader;
 
 public class MenuWorld extends GameWorld {
@@ -21,20 +21,21 @@ public class MenuWorld extends GameWorld {
 
         top = new GameObject(this, 0, 0, gameWidth, gameHeight, AssetLoader.square, Color.BLACK,
                 GameObject.Shape.RECTANGLE);
+        top.setLayer(RenderQueue.OVERLAY);
         top.fadeOut(.5f, 0f);
     }
 
 
     @Override
     public void update(float delta) {
-
+        tweens.update(delta);
         top.update(delta);
     }
 
     @Override
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
+    public void render(RenderQueue queue, DebugOverlay debug) {
 
-        top.render(batch, shapeRenderer);
+        top.render(queue, debug);
     }
 
     public void goToGameScreen() {
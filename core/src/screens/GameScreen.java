@@ -4,11 +4,16 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 
 import MainGame.MainGame;
+import configuration.Configuration;
+import gamecontrol.Replay;
 import aurelienribon.tweenengine.Tween;
 import gameworld.GameRenderer;
 import gameworld.GameWorld;
 import gameworld.InputHandler;
+import helpers.AllocationCounter;
 import helpers.FlatColors;
+import helpers.GlobalPools;
+import helpers.VectorPool;
 import tweens.Value;
 import tweens.ValueAccessor;
 
@@ -21,10 +26,20 @@ public class GameScreen implements Screen {
     public float sH = Gdx.graphics.getHeight();
     public float gameWidth = 1080;
     public float gameHeight = sH / (sW / gameWidth);
+    //seconds until the next pool report in logic only mode
+    private float statsTime = 0;
 
     public GameScreen(MainGame game) {
+        this(game, null);
+    }
+
+    /**
+     * A game that plays the replay back, on a board with the size and rules of the replay.
+     */
+    public GameScreen(MainGame game, Replay playback) {
         this.game = game;
         world = new GameWorld(game, gameWidth, gameHeight);
+        world.setPlayback(playback);
         world.start();
         Gdx.input.setInputProcessor(new InputHandler(world, sW / gameWidth, sH / gameHeight));
         renderer = new GameRenderer(world);
@@ -39,8 +54,22 @@ public class GameScreen implements Screen {
 
     @Override
     public void render(float delta) {
+        if (Configuration.FPS_COUNTER) AllocationCounter.beginFrame();
         world.update(delta);
-        renderer.render();
+        if (world.isLogicOnly()) logStats(delta);
+        else renderer.render();
+        if (Configuration.FPS_COUNTER) AllocationCounter.endFrame();
+    }
+
+    //pool sizes during soak runs, growing numbers point to a leak
+    private void logStats(float delta) {
+        statsTime -= delta;
+        if (statsTime > 0) return;
+        statsTime = 5;
+        Gdx.app.log("Soak", "score " + world.score + ", free squares "
+                + GlobalPools.squarePool.getFree() + ", active vectors "
+                + VectorPool.activeVectors.size + ", free vectors "
+                + VectorPool.vectorPool.getFree() + ", tweens " + world.tweens.size());
     }
 
     @Override
@@ -49,19 +78,21 @@ public class GameScreen implements Screen {
 
     @Override
     public void pause() {
-
+        world.saveReplay();
     }
 
     @Override
     public void resume() {
+        renderer.resume();
     }
 
     @Override
     public void hide() {
-
+        world.saveReplay();
     }
 
     @Override
     public void dispose() {
+        renderer.dispose();
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package tweens;
+
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.List;
+
+import aurelienribon.tweenengine.BaseTween;
+import aurelienribon.tweenengine.Tween;
+import aurelienribon.tweenengine.TweenManager;
+
+/**
+ * One TweenManager for the whole world. Every tween is tagged with the object that started it
+ * (stored as the tween user data) and listed under it, so the tweens of one object can be
+ * killed, paused or queried together, in the time of its own tweens, while the world still
+ * updates all of them in a single pass.
+ */
+public class TweenScheduler {
+
+    static {
+        Tween.registerAccessor(Sprite.class, new SpriteAccessor());
+        Tween.registerAccessor(Vector2.class, new VectorAccessor());
+        Tween.registerAccessor(Value.class, new ValueAccessor());
+    }
+
+    private final TweenManager manager = new TweenManager();
+    //live read-only view of the managed tweens
+    private final List<BaseTween<?>> tweens = manager.getObjects();
+    //the unfinished tweens of each owner, owners without tweens are removed
+    private final IdentityMap<Object, Array<BaseTween<?>>> byOwner =
+            new IdentityMap<Object, Array<BaseTween<?>>>();
+    private final Pool<Array<BaseTween<?>>> lists = new Pool<Array<BaseTween<?>>>() {
+        @Override
+        protected Array<BaseTween<?>> newObject() {
+            return new Array<BaseTween<?>>(false, 8);
+        }
+    };
+
+    public Tween start(Tween tween, Object owner) {
+        tween.setUserData(owner);
+        Array<BaseTween<?>> owned = byOwner.get(owner);
+        if (owned == null) {
+            owned = lists.obtain();
+            byOwner.put(owner, owned);
+        }
+        owned.add(tween);
+        return tween.start(manager);
+    }
+
+    public void update(float delta) {
+        //the manager frees finished tweens to the tween pool at the start of its update, they
+        //leave their owner before they can be reused
+        for (int i = 0, n = tweens.size(); i < n; i++) {
+            BaseTween<?> tween = tweens.get(i);
+            if (tween.isFinished()) untrack(tween);
+        }
+        manager.update(delta);
+    }
+
+    private void untrack(BaseTween<?> tween) {
+        Object owner = tween.getUserData();
+        if (owner == null) return;
+        Array<BaseTween<?>> owned = byOwner.get(owner);
+        if (owned == null || !owned.removeValue(tween, true) || owned.size > 0) return;
+        byOwner.remove(owner);
+        lists.free(owned);
+    }
+
+    public void killAll(Object owner) {
+        Array<BaseTween<?>> owned = byOwner.remove(owner);
+        if (owned == null) return;
+        for (int i = 0; i < owned.size; i++) {
+            owned.get(i).kill();
+        }
+        owned.clear();
+        lists.free(owned);
+    }
+
+    public void pauseAll(Object owner) {
+        Array<BaseTween<?>> owned = byOwner.get(owner);
+        if (owned == null) return;
+        for (int i = 0; i < owned.size; i++) {
+            owned.get(i).pause();
+        }
+    }
+
+    public void resumeAll(Object owner) {
+        Array<BaseTween<?>> owned = byOwner.get(owner);
+        if (owned == null) return;
+        for (int i = 0; i < owned.size; i++) {
+            owned.get(i).resume();
+        }
+    }
+
+    /**
+     * Whether the owner still has a tween that has not finished.
+     */
+    public boolean isAnimating(Object owner) {
+        Array<BaseTween<?>> owned = byOwner.get(owner);
+        if (owned == null) return false;
+        for (int i = 0; i < owned.size; i++) {
+            if (!owned.get(i).isFinished()) return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return manager.size();
+    }
+
+    public TweenManager getManager() {
+        return manager;
+    }
+}
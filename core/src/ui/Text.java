@@ -5,11 +5,12 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 import configuration.Configuration;
 import gameobjects.GameObject;
+import gameworld.DebugOverlay;
 import gameworld.GameWorld;
+import gameworld.RenderQueue;
 import helpers.FlatColors;
 
 public class Text extends GameObject {
@@ -36,35 +37,48 @@ public class Text extends GameObject {
         super.update(delta);
     }
 
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer, ShaderProgram fontshader) {
-        batch.setShader(fontshader);
-        if (shadow) {
-            font.setColor(Color.BLACK.r, Color.BLACK.g, Color.BLACK.b, 0.3f);
-            font.draw(batch, text, getRectangle().x + 50 + 5,
-                    getRectangle().y + getRectangle().height - distance - 5,
-                    getRectangle().width - 100,
+    public void render(RenderQueue queue, DebugOverlay debug, ShaderProgram fontshader) {
+        queue.draw(RenderQueue.TEXT, font.getRegion().getTexture(), fontshader, textDrawable);
+        if (Configuration.DEBUG) {
+            debug.rect(getRectangle().x, getRectangle().y, getRectangle().width,
+                       getRectangle().height, FlatColors.DARK_GREEN);
+        }
+    }
+
+    //drawn by the RenderQueue with the font shader already set
+    private final RenderQueue.Drawable textDrawable = new RenderQueue.Drawable() {
+        @Override
+        public void draw(SpriteBatch batch) {
+            if (shadow) {
+                font.setColor(Color.BLACK.r, Color.BLACK.g, Color.BLACK.b, 0.3f);
+                font.draw(batch, text, getRectangle().x + 50 + 5,
+                        getRectangle().y + getRectangle().height - distance - 5,
+                        getRectangle().width - 100,
+                        halign,
+                        true);
+
+            }
+            batch.setColor(Color.WHITE);
+            font.setColor(fontColor);
+            font.draw(batch, text, getRectangle().x,
+                    getRectangle().y + getRectangle().height - distance, getRectangle().width,
                     halign,
                     true);
-
+            font.setColor(Color.WHITE);
         }
-        batch.setColor(Color.WHITE);
-        font.setColor(fontColor);
-        font.draw(batch, text, getRectangle().x,
-                getRectangle().y + getRectangle().height - distance, getRectangle().width,
-                halign,
-                true);
-        font.setColor(Color.WHITE);
-        batch.setShader(null);
-        if (Configuration.DEBUG) {
-            batch.end();
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            shapeRenderer.setColor(FlatColors.DARK_GREEN);
-            shapeRenderer.rect(getRectangle().x, getRectangle().y, getRectangle().width,
-                    getRectangle().height);
-            shapeRenderer.end();
-            batch.begin();
+    };
+
+    private final RenderQueue.Drawable paddedTextDrawable = new RenderQueue.Drawable() {
+        @Override
+        public void draw(SpriteBatch batch) {
+            font.setColor(fontColor);
+            font.draw(batch, text, getRectangle().x + 50,
+                    getRectangle().y + getRectangle().height - distance, getRectangle().width - 100,
+                    halign,
+                    true);
+            font.setColor(Color.WHITE);
         }
-    }
+    };
 
     public void setText(String text) {
         this.text = text;
@@ -74,25 +88,13 @@ public class Text extends GameObject {
         this.fontColor = color;
     }
 
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer, ShaderProgram fontShader,
+    public void render(RenderQueue queue, DebugOverlay debug, ShaderProgram fontShader,
                        ShaderProgram fontShaderA) {
-
-
-        batch.setShader(fontShader);
-        font.setColor(fontColor);
-        font.draw(batch, text, getRectangle().x + 50,
-                getRectangle().y + getRectangle().height - distance, getRectangle().width - 100,
-                halign,
-                true);
-        font.setColor(Color.WHITE);
-        batch.setShader(null);
+        queue.draw(RenderQueue.TEXT, font.getRegion().getTexture(), fontShader,
+                   paddedTextDrawable);
         if (Configuration.DEBUG) {
-            batch.end();
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            shapeRenderer.setColor(FlatColors.DARK_GREEN);
-            shapeRenderer.rect(getRectangle().x, getRectangle().y, getRectangle().width, getRectangle().height);
-            shapeRenderer.end();
-            batch.begin();
+            debug.rect(getRectangle().x, getRectangle().y, getRectangle().width,
+                       getRectangle().height, FlatColors.DARK_GREEN);
         }
     }
 
@@ -1,20 +1,20 @@
 package ui;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g2d.NinePatch;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 import gameobjects.GameObject;
+import gameworld.DebugOverlay;
 import gameworld.GameWorld;
+import gameworld.RenderQueue;
 
 public class Timer extends GameObject {
 
     private NinePatch ninepatch;
 
     public Timer(GameWorld world, float x, float y, float width, float height,
-                 Texture texture, Color color,
+                 TextureRegion texture, Color color,
                  Shape shape) {
         super(world, x, y, width, height, texture, color, shape);
         ninepatch = new NinePatch(texture, 80, 80, 77, 77);
@@ -27,7 +27,8 @@ public class Timer extends GameObject {
     }
 
     @Override
-    public void render(SpriteBatch batch, ShapeRenderer shapeRenderer) {
-        ninepatch.draw(batch, sprite.getX(), sprite.getY(), sprite.getWidth(), sprite.getHeight());
+    public void render(RenderQueue queue, DebugOverlay debug) {
+        queue.draw(RenderQueue.UI, ninepatch, sprite.getX(), sprite.getY(), sprite.getWidth(),
+                   sprite.getHeight());
     }
 }
@@ -4,7 +4,10 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import MainGame.MainGame;
 
+import java.lang.management.ManagementFactory;
+
 import configuration.Configuration;
+import helpers.AllocationCounter;
 
 public class DesktopLauncher {
 	public static void main(String[] arg) {
@@ -12,6 +15,24 @@ public class DesktopLauncher {
 		config.title = Configuration.GAME_NAME;
 		config.width = (int) (1080 / 2.7f);
 		config.height = (int) (1920 / 2.7f);
+		if (Configuration.FPS_COUNTER) countAllocations();
 		new LwjglApplication(new MainGame(), config);
 	}
+
+	//HotSpot keeps a per thread count of allocated bytes
+	private static void countAllocations() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+			return;
+		}
+		final com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) return;
+		threads.setThreadAllocatedMemoryEnabled(true);
+		AllocationCounter.setSource(new AllocationCounter.Source() {
+			@Override
+			public long allocatedBytes() {
+				return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		});
+	}
 }
@@ -0,0 +1,35 @@
+package com.battledude.coincrush.simulator;
+
+/**
+ * Counters gathered by one {@link SimulationTask}, merged up the fork/join tree.
+ * Scores are written per game into a shared array owned by the {@link Simulator}.
+ */
+public class SimulationStats {
+
+    public static final int MAX_DEPTH = 32;
+
+    public long games, moves, deadlocks, gamesWithDeadlock;
+    public final long[] cascadeDepths = new long[MAX_DEPTH + 1];
+
+    public void addCascade(int depth) {
+        cascadeDepths[Math.min(depth, MAX_DEPTH)]++;
+    }
+
+    public void merge(SimulationStats other) {
+        games += other.games;
+        moves += other.moves;
+        deadlocks += other.deadlocks;
+        gamesWithDeadlock += other.gamesWithDeadlock;
+        for (int i = 0; i <= MAX_DEPTH; i++) {
+            cascadeDepths[i] += other.cascadeDepths[i];
+        }
+    }
+
+    public double meanCascadeDepth() {
+        long total = 0;
+        for (int i = 0; i <= MAX_DEPTH; i++) {
+            total += cascadeDepths[i] * i;
+        }
+        return moves == 0 ? 0 : (double) total / moves;
+    }
+}
@@ -0,0 +1,81 @@
+package com.battledude.coincrush.simulator;
+
+import java.util.concurrent.RecursiveTask;
+
+import gamecontrol.BoardModel;
+import gamecontrol.Moves;
+import helpers.GameRandom;
+
+/**
+ * Plays the games [from, to) of a simulation, splitting the range in halves until it is small
+ * enough to run on one worker. Every game gets its own seed, so results do not depend on how
+ * the range was split.
+ */
+public class SimulationTask extends RecursiveTask<SimulationStats> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int GAMES_PER_TASK = 16;
+
+    private final Simulator.Params params;
+    private final int[] scores;
+    private final int from, to;
+
+    public SimulationTask(Simulator.Params params, int[] scores, int from, int to) {
+        this.params = params;
+        this.scores = scores;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected SimulationStats compute() {
+        if (to - from <= GAMES_PER_TASK) {
+            SimulationStats stats = new SimulationStats();
+            for (int i = from; i < to; i++) {
+                scores[i] = playGame(params.seed + i * 0x9E3779B97F4A7C15L, stats);
+            }
+            return stats;
+        }
+
+        int mid = (from + to) >>> 1;
+        SimulationTask left = new SimulationTask(params, scores, from, mid);
+        SimulationTask right = new SimulationTask(params, scores, mid, to);
+        left.fork();
+        SimulationStats stats = right.compute();
+        stats.merge(left.join());
+        return stats;
+    }
+
+    /**
+     * Plays random valid moves with the same rules as the game Cascade: every move cascades until
+     * the board settles and a board without moves is cleared and refilled. Returns the score.
+     */
+    private int playGame(long seed, SimulationStats stats) {
+        GameRandom random = new GameRandom(seed);
+        BoardModel model = new BoardModel(params.width, params.height, params.types,
+                                          params.bonusProb);
+        model.setRandom(random);
+        model.generate(false);
+
+        boolean deadlocked = false;
+        for (int m = 0; m < params.moves; m++) {
+            Moves sols = model.solutions();
+            if (sols.size() == 0) {
+                stats.deadlocks++;
+                deadlocked = true;
+                model.clearAll();
+                model.refill();
+                model.resolve();
+                continue;
+            }
+            int c = random.nextInt(sols.size());
+            model.swap(sols.x(c), sols.y(c), sols.toX(c), sols.toY(c));
+            stats.addCascade(model.resolve());
+            stats.moves++;
+        }
+
+        stats.games++;
+        if (deadlocked) stats.gamesWithDeadlock++;
+        return model.getCleared();
+    }
+}
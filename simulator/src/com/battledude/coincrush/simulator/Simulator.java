@@ -0,0 +1,90 @@
+package com.battledude.coincrush.simulator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import configuration.Settings;
+
+/**
+ * Plays N seeded headless games on all cores and prints score, cascade and deadlock figures.
+ *
+ * Usage: Simulator [--games N] [--moves N] [--width N] [--height N] [--types N]
+ *                  [--bonus P] [--seed N] [--threads N]
+ */
+public class Simulator {
+
+    public static class Params {
+        public int games = 10000;
+        public int moves = 100;
+        public int width = Settings.NUM_OF_SQUARES_X;
+        public int height = Settings.NUM_OF_SQUARES_Y;
+        public int types = Settings.NUM_OF_TYPES;
+        public float bonusProb = Settings.BONUS_PROB;
+        public long seed = 1;
+        public int threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    public static void main(String[] args) {
+        Params params = parse(args);
+        int[] scores = new int[params.games];
+
+        ForkJoinPool pool = new ForkJoinPool(params.threads);
+        long startTime = System.nanoTime();
+        SimulationStats stats = pool.invoke(new SimulationTask(params, scores, 0, params.games));
+        double elapsed = (System.nanoTime() - startTime) / 1e9;
+        pool.shutdown();
+
+        report(params, stats, scores, elapsed);
+    }
+
+    private static Params parse(String[] args) {
+        Params params = new Params();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            if (args[i].equals("--games")) params.games = Integer.parseInt(value);
+            else if (args[i].equals("--moves")) params.moves = Integer.parseInt(value);
+            else if (args[i].equals("--width")) params.width = Integer.parseInt(value);
+            else if (args[i].equals("--height")) params.height = Integer.parseInt(value);
+            else if (args[i].equals("--types")) params.types = Integer.parseInt(value);
+            else if (args[i].equals("--bonus")) params.bonusProb = Float.parseFloat(value);
+            else if (args[i].equals("--seed")) params.seed = Long.parseLong(value);
+            else if (args[i].equals("--threads")) params.threads = Integer.parseInt(value);
+            else throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+        return params;
+    }
+
+    private static void report(Params params, SimulationStats stats, int[] scores,
+                               double elapsed) {
+        Arrays.sort(scores);
+        long total = 0;
+        for (int score : scores) total += score;
+
+        System.out.printf("Board %dx%d, %d types, bonus %.3f, seed %d, %d threads%n",
+                          params.width, params.height, params.types, params.bonusProb,
+                          params.seed, params.threads);
+        System.out.printf("%d games, %d moves in %.2fs (%.0f moves/s)%n", stats.games,
+                          stats.moves, elapsed, stats.moves / elapsed);
+        if (scores.length == 0) return;
+
+        System.out.printf("Score: mean %.1f, min %d, p10 %d, p50 %d, p90 %d, max %d%n",
+                          (double) total / scores.length, scores[0], percentile(scores, 10),
+                          percentile(scores, 50), percentile(scores, 90),
+                          scores[scores.length - 1]);
+        System.out.printf("Deadlocks: %d (%.4f per move), %.2f%% of games%n", stats.deadlocks,
+                          stats.moves == 0 ? 0 : (double) stats.deadlocks / stats.moves,
+                          100.0 * stats.gamesWithDeadlock / stats.games);
+        System.out.printf("Cascade depth: mean %.3f%n", stats.meanCascadeDepth());
+        for (int i = 0; i <= SimulationStats.MAX_DEPTH; i++) {
+            if (stats.cascadeDepths[i] == 0) continue;
+            System.out.printf("  %s%2d: %d (%.2f%%)%n", i == SimulationStats.MAX_DEPTH ? ">=" : "  ",
+                              i, stats.cascadeDepths[i],
+                              100.0 * stats.cascadeDepths[i] / stats.moves);
+        }
+    }
+
+    private static int percentile(int[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}